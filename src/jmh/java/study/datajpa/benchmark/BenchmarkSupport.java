@@ -0,0 +1,80 @@
+package study.datajpa.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.DataJpaApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트와 대량 데이터를 준비한다.
+ * 벤치마크마다 별도의 in-memory H2 를 사용해서 서로 간섭하지 않도록 한다.
+ */
+public final class BenchmarkSupport {
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    private BenchmarkSupport() {
+    }
+
+    public static ConfigurableApplicationContext start(String database, String... properties) {
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "decorator.datasource.p6spy.enable-logging=false")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * 임의 포트의 내장 웹 서버와 함께 시작한다. 포트는 local.server.port 로 구한다.
+     */
+    public static ConfigurableApplicationContext startWeb(String database, String... properties) {
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "decorator.datasource.p6spy.enable-logging=false")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * JPA 를 거치지 않고 member 테이블에 count 건을 넣는다. member_id 는 1부터 순서대로 부여한다.
+     */
+    public static void seedMembers(JdbcTemplate jdbcTemplate, int count) {
+        seedMembers(jdbcTemplate, count, 0);
+    }
+
+    /**
+     * @param teams 0 보다 크면 1..teams 의 team_id 를 돌아가며 지정한다. {@link #seedTeams} 로 먼저 만들어야 한다.
+     */
+    public static void seedMembers(JdbcTemplate jdbcTemplate, int count, int teams) {
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 1; i <= count; i++) {
+            Long teamId = teams > 0 ? (long) (i % teams + 1) : null;
+            batch.add(new Object[]{(long) i, String.format("member%08d", i), i % 100, teamId});
+            if (batch.size() == SEED_BATCH_SIZE || i == count) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id, version) values (?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    public static void seedTeams(JdbcTemplate jdbcTemplate, int count) {
+        List<Object[]> batch = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            batch.add(new Object[]{(long) i, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name, version) values (?, ?, 0)", batch);
+    }
+}
@@ -0,0 +1,58 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findBynNames 에 이름 1,000 ~ 1,000,000 개를 넘길 때의 지연시간. 이름 수에 거의 비례해야 한다.
+ * 회원 1,000,000 명, 이름의 절반만 존재한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InListBenchmark {
+
+    private static final int MEMBERS = 1_000_000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int names;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnlyTx;
+    private List<String> usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("inlist");
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnlyTx.setReadOnly(true);
+        BenchmarkSupport.seedMembers(context.getBean(JdbcTemplate.class), MEMBERS);
+
+        usernames = new ArrayList<>(names);
+        for (int i = 1; i <= names; i++) {
+            usernames.add(String.format("member%08d", i % 2 == 0 ? i : MEMBERS + i)); //홀수는 없는 이름
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findBynNames() {
+        return readOnlyTx.execute(status -> memberRepository.findBynNames(usernames).size());
+    }
+}
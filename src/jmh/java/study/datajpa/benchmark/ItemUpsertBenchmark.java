@@ -0,0 +1,80 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Item;
+import study.datajpa.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품 10,000 건 저장.
+ * merge: Persistable 이전의 save() 경로 (행마다 select 후 insert)
+ * saveAll: 현재 save() 경로 (persist, 영속성 컨텍스트를 거친 JDBC batch insert)
+ * upsertAll: native upsert JDBC batch (영속성 컨텍스트 없음)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemUpsertBenchmark {
+
+    private static final int ITEMS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private EntityManager em;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate tx;
+    private List<Item> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("itemupsert");
+        itemRepository = context.getBean(ItemRepository.class);
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        tx = context.getBean(TransactionTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        jdbcTemplate.execute("truncate table item");
+        items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Item(String.format("item%08d", i)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int merge() {
+        return tx.execute(status -> {
+            items.forEach(em::merge);
+            return items.size();
+        });
+    }
+
+    @Benchmark
+    public int saveAll() {
+        return itemRepository.saveAll(items).size();
+    }
+
+    @Benchmark
+    public int upsertAll() {
+        return itemRepository.upsertAll(items);
+    }
+}
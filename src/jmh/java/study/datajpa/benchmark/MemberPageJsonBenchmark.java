@@ -0,0 +1,77 @@
+package study.datajpa.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.controller.MemberPageJsonWriter;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.CountMode;
+import study.datajpa.repository.MemberPagingRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 한 페이지(100 건)를 JSON 으로 쓰는 비용. 엔티티 → MemberDto → PageImpl Jackson 직렬화와 ResultSet 에서 바로 쓰는 방식 비교.
+ * 연산 단위가 행이므로 -prof gc 의 gc.alloc.rate.norm 이 행당 할당 바이트가 된다.
+ * <p>
+ * ./gradlew jmh -PjmhArgs='MemberPageJsonBenchmark -prof gc'
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OperationsPerInvocation(MemberPageJsonBenchmark.PAGE_SIZE)
+@Fork(1)
+public class MemberPageJsonBenchmark {
+
+    static final int PAGE_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+    private MemberPagingRepository memberPagingRepository;
+    private MemberPageJsonWriter pageJsonWriter;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readOnlyTx;
+    private PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("pagejson");
+        memberPagingRepository = context.getBean(MemberPagingRepository.class);
+        pageJsonWriter = context.getBean(MemberPageJsonWriter.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        BenchmarkSupport.seedMembers(context.getBean(JdbcTemplate.class), 100_000);
+        pageRequest = PageRequest.of(10, PAGE_SIZE, Sort.by("username"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entityDtoJackson() {
+        readOnlyTx.executeWithoutResult(status -> {
+            try {
+                objectMapper.writeValue(OutputStream.nullOutputStream(),
+                        memberPagingRepository.findAll(pageRequest, CountMode.EXACT).map(MemberDto::new));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public void streamingWriter() throws IOException {
+        pageJsonWriter.write(pageRequest, CountMode.EXACT, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.KeysetSlice;
+import study.datajpa.repository.MemberCursor;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * offset 페이징(findAll(pageable), count 포함)과 keyset 페이징을 페이지 깊이별로 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberPagingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1", "100", "10000"})
+    int page;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private PageRequest pageRequest;
+    private MemberCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("paging");
+        memberRepository = context.getBean(MemberRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkSupport.seedMembers(jdbcTemplate, 10_000 * PAGE_SIZE);
+
+        pageRequest = PageRequest.of(page - 1, PAGE_SIZE, Sort.by("username", "id"));
+
+        //요청한 페이지 직전 행의 (username, member_id) 가 keyset 커서가 된다.
+        if (page > 1) {
+            Map<String, Object> last = jdbcTemplate.queryForMap(
+                    "select username, member_id from member order by username, member_id offset ? rows fetch next 1 rows only",
+                    (long) (page - 1) * PAGE_SIZE - 1);
+            cursor = new MemberCursor((String) last.get("USERNAME"), ((Number) last.get("MEMBER_ID")).longValue());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Member> offset() {
+        return memberRepository.findAll(pageRequest);
+    }
+
+    @Benchmark
+    public KeysetSlice<Member> keyset() {
+        return memberRepository.findAllByKeyset(cursor, PAGE_SIZE);
+    }
+}
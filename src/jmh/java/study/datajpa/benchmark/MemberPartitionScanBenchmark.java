@@ -0,0 +1,57 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.repository.MemberPartitionScanner;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 100,000 건의 나이별 집계를 파티션 1~16 개로 나눠 읽을 때의 확장성.
+ * 16 개 파티션이 모두 동시에 실행되도록 커넥션 풀을 17 로 둔다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberPartitionScanBenchmark {
+
+    private static final int MEMBERS = 100_000;
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int partitions;
+
+    private ConfigurableApplicationContext context;
+    private MemberPartitionScanner scanner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("partitionscan", "spring.datasource.hikari.maximum-pool-size=17");
+        scanner = context.getBean(MemberPartitionScanner.class);
+        BenchmarkSupport.seedMembers(context.getBean(JdbcTemplate.class), MEMBERS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long[] countByAge() {
+        return scanner.scan(partitions,
+                () -> new long[100],
+                (counts, member) -> {
+                    counts[member.getAge()]++;
+                    return counts;
+                },
+                (left, right) -> {
+                    for (int age = 0; age < left.length; age++) {
+                        left[age] += right[age];
+                    }
+                    return left;
+                });
+    }
+}
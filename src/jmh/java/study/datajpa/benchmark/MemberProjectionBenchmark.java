@@ -0,0 +1,72 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.NestedClosedProjections;
+import study.datajpa.repository.UsernameOnlyDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 전체 조회와 필요한 컬럼만 조회하는 프로젝션 비교.
+ * 행당 할당량은 gc 프로파일러로 본다: ./gradlew jmh -PjmhArgs='MemberProjectionBenchmark -prof gc'
+ * (gc.alloc.rate.norm = B/op, 한 번에 {@link #ROWS} 행)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberProjectionBenchmark {
+
+    static final int ROWS = 100;
+    private static final String USERNAME = "projection";
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnlyTx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("projection");
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnlyTx.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkSupport.seedTeams(jdbcTemplate, 10);
+        BenchmarkSupport.seedMembers(jdbcTemplate, 10_000, 10);
+        jdbcTemplate.update("update member set username = ? where member_id <= ?", USERNAME, ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> entity() {
+        return readOnlyTx.execute(status -> memberRepository.findListByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public List<NestedClosedProjections> nestedProjection() {
+        return readOnlyTx.execute(status -> memberRepository.findProjectionsByUsername(USERNAME, NestedClosedProjections.class));
+    }
+
+    @Benchmark
+    public List<NestedClosedProjections> narrowNestedProjection() {
+        return readOnlyTx.execute(status -> memberRepository.findNarrowProjectionsByUsername(USERNAME, NestedClosedProjections.class));
+    }
+
+    @Benchmark
+    public List<UsernameOnlyDto> narrowRecord() {
+        return readOnlyTx.execute(status -> memberRepository.findNarrowProjectionsByUsername(USERNAME, UsernameOnlyDto.class));
+    }
+}
@@ -0,0 +1,105 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 계층의 주요 조회/수정 경로. 회원 10,000 명, 팀 100 개.
+ * 같은 접두사의 벤치마크끼리 비교한다. (paging*, dto*, fetch*)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberRepositoryBenchmark {
+
+    private static final int MEMBERS = 10_000;
+    private static final int TEAMS = 100;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate tx;
+    private TransactionTemplate readOnlyTx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("repository");
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        tx = context.getBean(TransactionTemplate.class);
+        readOnlyTx = new TransactionTemplate(tx.getTransactionManager());
+        readOnlyTx.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkSupport.seedTeams(jdbcTemplate, TEAMS);
+        BenchmarkSupport.seedMembers(jdbcTemplate, MEMBERS, TEAMS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> pagingJpaFindByPage() {
+        return readOnlyTx.execute(status -> {
+            memberJpaRepository.totalCount(42);
+            return memberJpaRepository.findByPage(42, 20, 10);
+        });
+    }
+
+    @Benchmark
+    public Page<Member> pagingFindByAge() {
+        return readOnlyTx.execute(status ->
+                memberRepository.findByAge(42, PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "username"))));
+    }
+
+    @Benchmark
+    public List<MemberDto> dtoFindMemberDtoList() {
+        return readOnlyTx.execute(status -> memberRepository.findMemberDtoList());
+    }
+
+    @Benchmark
+    public List<MemberDto> dtoEntityAndMapping() {
+        return readOnlyTx.execute(status -> memberRepository.findMemberFetchJoin().stream()
+                .map(m -> new MemberDto(m.getId(), m.getUsername(), m.getTeam().getName()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<Member> fetchJoin() {
+        return readOnlyTx.execute(status -> memberRepository.findMemberFetchJoin());
+    }
+
+    @Benchmark
+    public List<Member> fetchEntityGraph() {
+        return readOnlyTx.execute(status -> memberRepository.findAll());
+    }
+
+    @Benchmark
+    public Integer bulkAgePlus() {
+        return tx.execute(status -> memberRepository.bulkAgePlus(50));
+    }
+
+    @Benchmark
+    public List<Member> specification() {
+        return readOnlyTx.execute(status ->
+                memberRepository.findAll(MemberSpec.username("member00004242").and(MemberSpec.teamName("team43"))));
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.support.OptimisticRetryExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 한 명을 여러 스레드가 동시에 수정할 때 비관적 락(select for update)과 낙관적 락(+재시도)의 처리량과 tail latency 비교.
+ * 스레드 수 별로 하위 클래스를 둔다. (JMH 는 스레드 수를 @Param 으로 받지 못한다)
+ * <p>
+ * ./gradlew jmh -PjmhArgs='MemberUpdateContentionBenchmark'
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class MemberUpdateContentionBenchmark {
+
+    private static final String HOT_USERNAME = "hot";
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate tx;
+    private OptimisticRetryExecutor retryExecutor;
+    private Long hotMemberId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String database = getClass().getSimpleName().toLowerCase();
+        context = BenchmarkSupport.start(database,
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000",
+                "spring.datasource.hikari.maximum-pool-size=33",
+                "datajpa.retry.max-attempts=1000");
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        tx = context.getBean(TransactionTemplate.class);
+        retryExecutor = context.getBean(OptimisticRetryExecutor.class);
+        hotMemberId = memberJpaRepository.save(new Member(HOT_USERNAME, 0)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int pessimistic() {
+        return tx.execute(status -> {
+            Member member = memberRepository.findLockByUsername(HOT_USERNAME).get(0);
+            member.setAge(member.getAge() + 1);
+            return member.getAge();
+        });
+    }
+
+    @Benchmark
+    public int optimistic() {
+        return retryExecutor.execute(() -> {
+            Member member = memberJpaRepository.find(hotMemberId);
+            member.setAge(member.getAge() + 1);
+            return member.getAge();
+        });
+    }
+
+    @Threads(2)
+    public static class Threads2 extends MemberUpdateContentionBenchmark {
+    }
+
+    @Threads(8)
+    public static class Threads8 extends MemberUpdateContentionBenchmark {
+    }
+
+    @Threads(32)
+    public static class Threads32 extends MemberUpdateContentionBenchmark {
+    }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 10,000 건을 읽고 커밋할 때 읽기/쓰기 트랜잭션과 읽기 전용 트랜잭션의 비교.
+ * 쓰기 트랜잭션은 커밋 시 flush 가 모든 스냅샷을 비교한다. 할당량은 -prof gc 로 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate readWriteTx;
+    private TransactionTemplate readOnlyTx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("readonly");
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        readWriteTx = context.getBean(TransactionTemplate.class);
+        readOnlyTx = new TransactionTemplate(readWriteTx.getTransactionManager());
+        readOnlyTx.setReadOnly(true);
+        BenchmarkSupport.seedMembers(context.getBean(JdbcTemplate.class), 10_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> readWrite() {
+        return readWriteTx.execute(status -> memberJpaRepository.findAll());
+    }
+
+    @Benchmark
+    public List<Member> readOnly() {
+        return readOnlyTx.execute(status -> memberJpaRepository.findAll());
+    }
+}
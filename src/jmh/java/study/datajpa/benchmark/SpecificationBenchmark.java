@@ -0,0 +1,89 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.CompilableSpecification;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 조합된 spec 10 가지를 번갈아 실행할 때 Criteria(findAll) 와 캐시된 JPQL(findAllCompiled) 의 지연시간 비교.
+ * 값은 매번 달라도 구조는 10 가지다. 회원 10,000 명, 팀 100 개.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpecificationBenchmark {
+
+    private static final int SPECS = 10;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnlyTx;
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("specification");
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnlyTx.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkSupport.seedTeams(jdbcTemplate, 100);
+        BenchmarkSupport.seedMembers(jdbcTemplate, 10_000, 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SPECS)
+    public void criteria(Blackhole blackhole) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (int i = 0; i < SPECS; i++) {
+                blackhole.consume(memberRepository.findAll(spec(i, sequence++)));
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SPECS)
+    public void compiled(Blackhole blackhole) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (int i = 0; i < SPECS; i++) {
+                blackhole.consume(memberRepository.findAllCompiled(spec(i, sequence++)));
+            }
+        });
+    }
+
+    private static CompilableSpecification<Member> spec(int structure, int value) {
+        String username = String.format("member%08d", value % 10_000 + 1);
+        String teamName = "team" + (value % 100 + 1);
+        int age = value % 100;
+        return switch (structure) {
+            case 0 -> MemberSpec.username(username);
+            case 1 -> MemberSpec.teamName(teamName);
+            case 2 -> MemberSpec.age(age);
+            case 3 -> MemberSpec.username(username).andCompilable(MemberSpec.teamName(teamName));
+            case 4 -> MemberSpec.age(age).andCompilable(MemberSpec.teamName(teamName));
+            case 5 -> MemberSpec.username(username).andCompilable(MemberSpec.age(age));
+            case 6 -> MemberSpec.username(username).orCompilable(MemberSpec.age(age));
+            case 7 -> MemberSpec.age(age).andCompilable(MemberSpec.username(username).orCompilable(MemberSpec.teamName(teamName)));
+            case 8 -> MemberSpec.username(username).andCompilable(MemberSpec.age(age)).andCompilable(MemberSpec.teamName(teamName));
+            default -> MemberSpec.age(age).orCompilable(MemberSpec.age(age + 1)).andCompilable(MemberSpec.teamName(teamName));
+        };
+    }
+}
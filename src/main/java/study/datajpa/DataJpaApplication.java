@@ -2,14 +2,16 @@ package study.datajpa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import study.datajpa.support.TransactionScopedAuditorAware;
 
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
-@EnableJpaAuditing
 @SpringBootApplication
 public class DataJpaApplication {
 
@@ -19,6 +21,21 @@ public class DataJpaApplication {
 
 	@Bean
 	public AuditorAware<String> auditorProvider(){
-		return () -> Optional.of(UUID.randomUUID().toString());
+		//UUID.randomUUID() 는 SecureRandom 을 사용한다. 트랜잭션마다 한 번, 경합 없는 난수로 version 4 UUID 를 만든다.
+		return new TransactionScopedAuditorAware(() -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			long msb = (random.nextLong() & ~0xF000L) | 0x4000L; //version 4
+			long lsb = (random.nextLong() & ~(0xC0L << 56)) | (0x80L << 56); //variant 2 (IETF)
+			return new UUID(msb, lsb).toString();
+		});
+	}
+
+	/**
+	 * datajpa.auditing.mode=fast 이면 AuditingEntityListener 대신 FastAuditingListener 가 감사 필드를 채운다.
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@EnableJpaAuditing
+	@ConditionalOnProperty(name = "datajpa.auditing.mode", havingValue = "standard", matchIfMissing = true)
+	static class JpaAuditingConfig {
 	}
 }
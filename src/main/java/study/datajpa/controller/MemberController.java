@@ -1,36 +1,117 @@
 package study.datajpa.controller;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberFreshness;
+import study.datajpa.dto.MemberSnapshot;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.CountMode;
+import study.datajpa.repository.KeysetSlice;
+import study.datajpa.repository.MemberChangeStamp;
+import study.datajpa.repository.MemberCursor;
+import study.datajpa.repository.MemberPagingRepository;
 import study.datajpa.repository.MemberRepository;
 
+import java.io.IOException;
+
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
     private final MemberRepository memberRepository;
+    private final MemberPagingRepository memberPagingRepository;
+    private final MemberResponseCache responseCache;
+    private final MemberChangeStamp changeStamp;
+    private final MemberPageJsonWriter pageJsonWriter;
+
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
 
+    /**
+     * If-None-Match/If-Modified-Since 가 맞으면 검증값 쿼리만 실행하고 304 를 반환한다.
+     */
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Long id) {
+    @Transactional(readOnly = true)
+    public String findMember(@PathVariable("id") Long id, WebRequest request) {
+        MemberFreshness freshness = memberRepository.findFreshnessById(id);
+        if (freshness.exists() && request.checkNotModified(freshness.etag(), freshness.lastModifiedMillis())) {
+            return null;
+        }
         Member member = memberRepository.findById(id).get();
         return member.getUsername();
     }
 
     @GetMapping("/members2/{id}")
-    public String findMember2(@PathVariable("id") Member member) {
-        return member.getUsername();
+    public String findMember2(@PathVariable("id") MemberSnapshot member) {//MemberSnapshotConverter
+        return member.username();
     }
 
+    /**
+     * {@link MemberChangeStamp} 로 조건부 GET 을 처리하고(쿼리 없음), 200 응답 본문은 {@link MemberResponseCache} 에서 꺼낸다.
+     */
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size = 5, sort = "username") Pageable pageable) {//http://localhost:8080/members?page=2&size=3&sort=id,desc&sort=username,asc
-        return memberRepository.findAll(pageable)
+    @Transactional(readOnly = true)
+    public ResponseEntity<byte[]> list(@PageableDefault(size = 5, sort = "username") Pageable pageable,
+                                       @RequestParam(value = "count", defaultValue = "EXACT") CountMode count,
+                                       WebRequest request) {//http://localhost:8080/members?page=2&size=3&sort=id,desc&sort=username,asc&count=CACHED
+        String etag = changeStamp.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        byte[] body = responseCache.get(pageable + "|" + count + "|" + etag,
+                () -> memberPagingRepository.findAll(pageable, count).map(MemberDto::new));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache()) //저장은 하되 매번 재검증
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * {@link MemberPageJsonWriter} 로 엔티티/DTO 없이 응답 버퍼에 바로 쓴다. 응답 형식은 고정된 page 봉투를 쓴다.
+     * 본문에 팀 이름이 들어가서 회원 변경만으로는 검증할 수 없으므로 조건부 GET 은 하지 않는다.
+     */
+    @GetMapping("/members/page")
+    @Transactional(readOnly = true)
+    public void page(@PageableDefault(size = 5, sort = "username") Pageable pageable,
+                     @RequestParam(value = "count", defaultValue = "EXACT") CountMode count,
+                     HttpServletResponse response) throws IOException {//http://localhost:8080/members/page?page=2&size=3&sort=age,desc
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        pageJsonWriter.write(pageable, count, response.getOutputStream());
+    }
+
+    /**
+     * size 는 offset 페이징과 같은 max-page-size 로 제한한다. 잘못된 cursor, size 는 400 이다.
+     */
+    @GetMapping("/members/keyset")
+    @Transactional(readOnly = true)
+    public KeysetSlice<MemberDto> keysetList(@RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "size", defaultValue = "5") int size) {//http://localhost:8080/members/keyset?size=3&cursor={nextCursor}
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be positive: " + size);
+        }
+        MemberCursor after;
+        try {
+            after = MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return memberRepository.findAllByKeyset(after, Math.min(size, maxPageSize))
                 .map(MemberDto::new);
     }
 
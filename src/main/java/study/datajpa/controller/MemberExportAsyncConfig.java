@@ -0,0 +1,43 @@
+package study.datajpa.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * export 응답(StreamingResponseBody)에만 긴 비동기 제한 시간을 준다.
+ * 비동기 처리가 시작되기 직전(beforeConcurrentHandling)에 요청 경로를 보고 제한 시간을 바꾼다.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MemberExportAsyncConfig implements WebMvcConfigurer {
+
+    private static final String EXPORT_PATH = "/members/export/";
+
+    private final long exportTimeoutMillis;
+
+    public MemberExportAsyncConfig(@Value("${datajpa.export.timeout:1h}") Duration exportTimeout) {
+        this.exportTimeoutMillis = exportTimeout.toMillis();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+                if (request instanceof AsyncWebRequest asyncRequest && servletRequest != null
+                        && servletRequest.getRequestURI().startsWith(servletRequest.getContextPath() + EXPORT_PATH)) {
+                    asyncRequest.setTimeout(exportTimeoutMillis);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.support.JdbcAdmission;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 회원 전체를 한 번에 메모리에 올리지 않고 조회되는 대로 응답에 흘려보낸다. (chunked transfer)
+ * 응답은 MVC 비동기 스레드에서 쓰고, 제한 시간은 datajpa.export.timeout 이다. ({@link MemberExportAsyncConfig})
+ */
+@RestController
+public class MemberExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectProvider<JdbcAdmission> admission;
+
+    public MemberExportController(MemberRepository memberRepository, ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectProvider<JdbcAdmission> admission) {
+        this.memberRepository = memberRepository;
+        this.admission = admission;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @GetMapping("/members/export/ndjson")
+    public ResponseEntity<StreamingResponseBody> exportNdjson() {
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            generator.setRootValueSeparator(null);
+            forEachMember(dto -> {
+                try {
+                    generator.writeObject(dto);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @GetMapping("/members/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("id,username,teamName\n");
+            forEachMember(dto -> {
+                try {
+                    writer.write(dto.getId() + "," + csv(dto.getUsername()) + "," + csv(dto.getTeamName()) + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(CSV).body(body);
+    }
+
+    /**
+     * 스트림이 열려있는 동안 커넥션이 유지되어야 하므로 읽기 전용 트랜잭션 안에서 순회한다.
+     * 요청 수 제한이 켜져 있으면 커넥션을 잡는 동안 허가를 가진다. 응답을 쓰기 전이므로 허가가 없으면 503 이다.
+     */
+    private void forEachMember(Consumer<MemberDto> action) {
+        JdbcAdmission gate = admission.getIfAvailable();
+        if (gate != null && !gate.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many concurrent requests");
+        }
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<MemberDto> members = memberRepository.streamMemberDto()) {
+                    members.forEach(action);
+                }
+            });
+        } finally {
+            if (gate != null) {
+                gate.release();
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
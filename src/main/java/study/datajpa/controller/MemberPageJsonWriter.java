@@ -0,0 +1,139 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.repository.CountMode;
+import study.datajpa.repository.MemberCountCache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 회원 페이지를 엔티티/DTO/PageImpl 없이 ResultSet 에서 바로 JSON 으로 쓴다.
+ * 행마다 남는 객체는 드라이버가 만드는 문자열뿐이고, Jackson 버퍼는 재사용된다.
+ * <p>
+ * 응답 형식은 PageImpl 내부 구조와 무관하게 고정한다.
+ * <pre>
+ * {"content":[{"id":1,"username":"a","teamName":"teamA"}],
+ *  "page":{"number":0,"size":20,"numberOfElements":1,"totalElements":1,"totalPages":1}}
+ * </pre>
+ * CountMode.NONE 이면 totalElements/totalPages 대신 hasNext 를 쓴다. (size+1 건 조회)
+ */
+@Component
+public class MemberPageJsonWriter {
+
+    private static final String SELECT = "select m.member_id, m.username, t.name from member m"
+            + " left join team t on t.team_id = m.team_id";
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "m.member_id",
+            "username", "m.username",
+            "age", "m.age",
+            "teamName", "t.name");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+    private final MemberCountCache countCache;
+
+    public MemberPageJsonWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MemberCountCache countCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+        this.countCache = countCache;
+    }
+
+    @Transactional(readOnly = true)
+    public void write(Pageable pageable, CountMode mode, OutputStream out) throws IOException {
+        int size = pageable.getPageSize();
+        int limit = mode == CountMode.NONE ? size + 1 : size;
+        String sql = SELECT + orderBy(pageable.getSort()) + " offset ? rows fetch next ? rows only";
+        AtomicInteger rows = new AtomicInteger();
+
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeArrayFieldStart("content");
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(limit);
+                ps.setLong(1, pageable.getOffset());
+                ps.setInt(2, limit);
+                return ps;
+            }, rs -> {
+                if (rows.incrementAndGet() > size) {
+                    return; //hasNext 확인용
+                }
+                try {
+                    json.writeStartObject();
+                    json.writeNumberField("id", rs.getLong(1));
+                    json.writeStringField("username", rs.getString(2));
+                    json.writeStringField("teamName", rs.getString(3));
+                    json.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            json.writeEndArray();
+
+            int written = Math.min(rows.get(), size);
+            json.writeObjectFieldStart("page");
+            json.writeNumberField("number", pageable.getPageNumber());
+            json.writeNumberField("size", size);
+            json.writeNumberField("numberOfElements", written);
+            if (mode == CountMode.NONE) {
+                json.writeBooleanField("hasNext", rows.get() > size);
+            } else {
+                long total = total(pageable, mode, written);
+                json.writeNumberField("totalElements", total);
+                json.writeNumberField("totalPages", (total + size - 1) / size);
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * 마지막 페이지면 count 쿼리 없이 구한다. (PageableExecutionUtils 와 같은 규칙)
+     */
+    private long total(Pageable pageable, CountMode mode, int written) {
+        if ((pageable.getOffset() == 0 || written > 0) && written < pageable.getPageSize()) {
+            return pageable.getOffset() + written;
+        }
+        if (mode == CountMode.CACHED) {
+            return countCache.get("all", this::count);
+        }
+        return count();
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+    }
+
+    /**
+     * 정렬 속성은 허용된 컬럼으로만 바꾼다(그 외는 400). 같은 값 사이 순서를 고정하기 위해 항상 id 로 마무리한다.
+     */
+    private static String orderBy(Sort sort) {
+        StringBuilder sql = new StringBuilder(" order by ");
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unsupported sort property: " + order.getProperty());
+            }
+            if (column.equals("m.member_id")) {
+                return sql.append(column).append(order.isAscending() ? "" : " desc").toString();
+            }
+            sql.append(column).append(order.isAscending() ? "" : " desc").append(", ");
+        }
+        return sql.append("m.member_id").toString();
+    }
+}
@@ -0,0 +1,73 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.MemberChangedEvent;
+import study.datajpa.repository.MemberChangeStamp;
+import study.datajpa.support.MemberChangeListener;
+import study.datajpa.support.TtlCache;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 자주 조회되는 회원 목록 응답을 직렬화된 JSON 으로 캐시한다. 캐시 hit 이면 조회도 직렬화도 하지 않는다.
+ * <p>
+ * 키에 {@link MemberChangeStamp} 의 ETag 를 포함하므로 변경 후에는 이전 응답과 키가 달라진다.
+ * 회원 변경 이벤트로는 메모리만 비운다.
+ */
+@Component
+public class MemberResponseCache implements MemberChangeListener {
+
+    private final TtlCache<String, byte[]> responses;
+    private final ObjectMapper objectMapper;
+
+    public MemberResponseCache(ObjectMapper objectMapper,
+                               @Value("${datajpa.response-cache.ttl:1m}") Duration ttl,
+                               @Value("${datajpa.response-cache.max-size:1000}") int maxSize,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.responses = new TtlCache<>(ttl, maxSize);
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("datajpa.response.cache", responses, TtlCache::hitCount)
+                    .tag("result", "hit")
+                    .description("serialized member response lookups")
+                    .register(registry);
+            FunctionCounter.builder("datajpa.response.cache", responses, TtlCache::missCount)
+                    .tag("result", "miss")
+                    .description("serialized member response lookups")
+                    .register(registry);
+            Gauge.builder("datajpa.response.cache.size", responses, TtlCache::size)
+                    .register(registry);
+        });
+    }
+
+    public byte[] get(String key, Supplier<?> body) {
+        return responses.get(key, k -> {
+            try {
+                return objectMapper.writeValueAsBytes(body.get());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Override
+    public void onMemberChanged(MemberChangedEvent event) {
+        responses.invalidateAll();
+    }
+
+    public long hitCount() {
+        return responses.hitCount();
+    }
+
+    public long missCount() {
+        return responses.missCount();
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.repository.MemberSnapshotCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code @PathVariable("id") MemberSnapshot} 를 {@link MemberSnapshotCache} 에서 찾는다.
+ * 도메인 클래스 컨버터({@code @PathVariable("id") Member})는 요청마다 findById 로 엔티티를 읽는다.
+ * <p>
+ * 스프링 부트가 Converter 빈을 MVC 변환 서비스에 등록한다. 변환 시간은 datajpa.member.snapshot.lookup 타이머로 남긴다.
+ */
+@Component
+public class MemberSnapshotConverter implements Converter<String, MemberSnapshot> {
+
+    private final MemberSnapshotCache cache;
+    private final Timer timer;
+
+    public MemberSnapshotConverter(MemberSnapshotCache cache, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = cache;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.timer = registry == null ? null : Timer.builder("datajpa.member.snapshot.lookup")
+                .description("path variable to member snapshot conversion")
+                .register(registry);
+    }
+
+    /**
+     * @throws ResponseStatusException 숫자가 아니거나 없는 id 면 404. 변환 예외에 감싸져도 ResponseStatusExceptionResolver 가 원인에서 찾는다.
+     */
+    @Override
+    public MemberSnapshot convert(String source) {
+        long id;
+        try {
+            id = Long.parseLong(source);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "member not found: " + source, e);
+        }
+        if (timer == null) {
+            return found(source, cache.get(id));
+        }
+        long started = System.nanoTime();
+        try {
+            return found(source, cache.get(id));
+        } finally {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static MemberSnapshot found(String source, MemberSnapshot member) {
+        if (member == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "member not found: " + source);
+        }
+        return member;
+    }
+}
@@ -0,0 +1,7 @@
+package study.datajpa.dto;
+
+/**
+ * 2차 캐시 region 별 통계. evictions 는 용량(heap entries) 초과로 밀려난 건수이다.
+ */
+public record CacheRegionStats(String region, long hits, long misses, long puts, long evictions, long size) {
+}
@@ -0,0 +1,32 @@
+package study.datajpa.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 조건부 GET(ETag/Last-Modified) 검증값. 엔티티를 읽지 않고 집계 쿼리 한 번으로 구한다.
+ * <p>
+ * bulk 연산(update versioned)은 lastModifiedDate 를 바꾸지 않고 version 만 올리므로 ETag 는 version 합으로 만든다.
+ * If-None-Match 가 있으면 If-Modified-Since 보다 우선한다.
+ *
+ * @param count        대상 회원 수 (삭제/추가 감지)
+ * @param versionSum   version 합 (수정 감지)
+ * @param lastModified 가장 최근 수정 시각, 감사 값이 없으면 null
+ */
+public record MemberFreshness(Long count, Long versionSum, LocalDateTime lastModified) {
+
+    public boolean exists() {
+        return count != null && count > 0;
+    }
+
+    public String etag() {
+        return "W/\"" + count + "-" + (versionSum == null ? 0 : versionSum) + "-" + lastModifiedMillis() + "\"";
+    }
+
+    /**
+     * @return 감사 값이 없으면 -1 (Last-Modified 를 쓰지 않는다)
+     */
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,7 @@
+package study.datajpa.dto;
+
+/**
+ * 회원 단건 조회용 읽기 전용 값. 영속성 컨텍스트에 올라가지 않으므로 요청 사이에 캐시해도 된다.
+ */
+public record MemberSnapshot(Long id, String username, int age) {
+}
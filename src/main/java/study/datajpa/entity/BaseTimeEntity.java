@@ -3,6 +3,7 @@ package study.datajpa.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
@@ -24,4 +25,7 @@ public class BaseTimeEntity {
 
     @LastModifiedDate
     private LocalDateTime LastModifiedDate;
+
+    @Version //낙관적 락. 변경 시 where version = ? 으로 동시 수정을 감지한다.
+    private long version;
 }
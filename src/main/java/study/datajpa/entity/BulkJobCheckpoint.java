@@ -0,0 +1,37 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 청크 단위 bulk 작업의 진행 위치. 청크와 같은 트랜잭션에서 갱신되므로 실패 후 마지막으로 커밋된 청크 다음부터 재개할 수 있다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class BulkJobCheckpoint {
+
+    @Id
+    private String jobName;
+    private Long lastId;
+    private long processed;
+    private int chunks;
+    private boolean completed;
+
+    public BulkJobCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public void chunkDone(Long lastId, int processed) {
+        this.lastId = lastId;
+        this.processed += processed;
+        this.chunks++;
+    }
+
+    public void complete() {
+        this.completed = true;
+    }
+}
@@ -1,9 +1,6 @@
 package study.datajpa.entity;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.EntityListeners;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.Id;
+import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -32,30 +29,21 @@ public class Item  implements Persistable<String>  {
     }
 
     /**
-     * @GeneratedValue 어노테이션이 아닌 직접 pk를 입력하는 경우에는 id가 있어 jpa save 메서드에서 기존 엔티티로 판단을 하게 된다.
-     * 이를 해결하기 위해 Persistable 인터페이스를 상속받아 isNew 메서드를 재정의한다.
-     *
-     * SimpleJpaRepository 에 isNew 메서드 호출은 아래와 같음..
-     *
-     *    @Transactional
-     *    @Override
-     *    public <S extends T> S save(S entity) {
-     *
-     * 		Assert.notNull(entity, "Entity must not be null");
-     *
-     * 		if (entityInformation.isNew(entity)) {  <------------------ isNew 로직이 문제가 된다.
-     * 			entityManager.persist(entity);
-     * 			return entity;
-     *        } else {
-     * 			return entityManager.merge(entity);
-     *        }
-     *    }
-     * @return
+     * 직접 pk 를 입력하므로 id 로는 새 엔티티인지 알 수 없다. (SimpleJpaRepository.save 가 persist 대신 merge 를 호출하고, merge 는 먼저 select 한다)
+     * 생성자로 만든 엔티티는 새 엔티티이고, 저장되거나 조회되면 더 이상 새 엔티티가 아니다.
+     * createDate 는 감사 모드에 따라 flush 전까지 비어있을 수 있어 판단 기준으로 쓰지 않는다.
      */
+    @Transient
+    private boolean isNew = true;
+
     @Override
     public boolean isNew() {
-        return getCreateDate() == null;
+        return isNew;
     }
 
-
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
 }
@@ -2,15 +2,27 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import study.datajpa.support.MemberEntityListener;
+import study.datajpa.support.TimeOrderedId;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username_id", columnList = "username, member_id"),
+        @Index(name = "idx_member_age_username_id", columnList = "age, username, member_id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
+@EntityListeners(MemberEntityListener.class)
 @Getter
 @Setter //엔티티에서 setter는 가급적 사용 자제
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 //@ToString(of = {"id","username","age","team"})
 public class Member extends BaseEntity{
 
-    @Id @GeneratedValue
+    @Id
+    @TimeOrderedId //DB 왕복 없이 발급, 여러 노드에서도 유일
     @Column(name = "member_id")
     private Long id;
     private String username;
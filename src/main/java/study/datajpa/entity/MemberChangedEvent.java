@@ -0,0 +1,16 @@
+package study.datajpa.entity;
+
+/**
+ * 회원이 저장/수정/삭제되었음을 알린다. 캐시 무효화에 사용한다.
+ * @param memberId 여러 회원이 한 번에 바뀐 경우(bulk) null
+ */
+public record MemberChangedEvent(Long memberId) {
+
+    public static MemberChangedEvent all() {
+        return new MemberChangedEvent(null);
+    }
+
+    public boolean isBulk() {
+        return memberId == null;
+    }
+}
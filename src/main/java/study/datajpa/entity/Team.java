@@ -2,6 +2,10 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import study.datajpa.support.TimeOrderedId;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,15 +15,20 @@ import java.util.List;
 @Setter //엔티티에서 setter는 가급적 사용 자제
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","name"})
-public class Team {
+@BatchSize(size = 100) //Member.team 프록시 초기화를 IN 쿼리로 묶는다.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
+public class Team extends BaseEntity {
 
     @Id
-    @GeneratedValue
+    @TimeOrderedId //DB 왕복 없이 발급, 여러 노드에서도 유일
     @Column(name = "team_id")
     private Long id;
     private String name;
 
 
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team.members")
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
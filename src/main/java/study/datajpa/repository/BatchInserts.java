@@ -0,0 +1,33 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.Collection;
+
+/**
+ * 순수 JPA 리포지토리의 대량 저장.
+ * batchSize(hibernate.jdbc.batch_size) 건마다 flush/clear 해서 JDBC batch insert 로 보내고 영속성 컨텍스트가 커지지 않게 한다.
+ */
+final class BatchInserts {
+
+    private BatchInserts() {
+    }
+
+    /**
+     * 호출 전 영속성 컨텍스트에 있던 엔티티도 준영속 상태가 된다. 호출하는 쪽의 트랜잭션 안에서 실행한다.
+     * @return 저장한 건수
+     */
+    static int persistAll(EntityManager em, Collection<?> entities, int batchSize) {
+        int count = 0;
+        for (Object entity : entities) {
+            em.persist(entity);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+}
@@ -0,0 +1,65 @@
+package study.datajpa.repository;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 키를 모아두었다가 한 번의 IN 쿼리로 읽고, 한 번 읽은 값은 다시 조회하지 않는다. (DataLoader)
+ * 스레드 안전하지 않으므로 요청/작업 단위로 만들어 쓴다.
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<Collection<K>, Map<K, V>> batchFunction;
+    private final int maxBatchSize;
+    private final Map<K, V> loaded = new HashMap<>();
+    private final Set<K> pending = new LinkedHashSet<>();
+
+    public BatchLoader(Function<Collection<K>, Map<K, V>> batchFunction, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 조회를 예약만 한다. 실제 조회는 다음 load 시점에 예약된 키와 함께 일어난다.
+     */
+    public void prime(K key) {
+        if (key != null && !loaded.containsKey(key)) {
+            pending.add(key);
+        }
+    }
+
+    public V load(K key) {
+        prime(key);
+        dispatch();
+        return loaded.get(key);
+    }
+
+    public Map<K, V> loadAll(Collection<K> keys) {
+        keys.forEach(this::prime);
+        dispatch();
+
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (key != null) {
+                result.put(key, loaded.get(key));
+            }
+        }
+        return result;
+    }
+
+    private void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(pending);
+        pending.clear();
+        for (int from = 0; from < keys.size(); from += maxBatchSize) {
+            List<K> batch = keys.subList(from, Math.min(from + maxBatchSize, keys.size()));
+            Map<K, V> values = batchFunction.apply(batch);
+            for (K key : batch) {
+                //조회 결과가 없는 키도 기록해서 다시 조회하지 않는다.
+                loaded.put(key, values.get(key));
+            }
+        }
+    }
+}
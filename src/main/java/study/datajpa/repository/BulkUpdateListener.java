@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+/**
+ * 청크가 커밋될 때마다 호출된다.
+ */
+@FunctionalInterface
+public interface BulkUpdateListener {
+
+    BulkUpdateListener NONE = progress -> {
+    };
+
+    void onChunk(BulkUpdateProgress progress);
+}
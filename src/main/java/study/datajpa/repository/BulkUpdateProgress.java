@@ -0,0 +1,14 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.BulkJobCheckpoint;
+
+/**
+ * @param lastId 마지막으로 커밋된 청크의 최대 member_id
+ */
+public record BulkUpdateProgress(String jobName, int chunks, long processed, Long lastId, boolean completed) {
+
+    static BulkUpdateProgress of(BulkJobCheckpoint checkpoint) {
+        return new BulkUpdateProgress(checkpoint.getJobName(), checkpoint.getChunks(), checkpoint.getProcessed(),
+                checkpoint.getLastId(), checkpoint.isCompleted());
+    }
+}
@@ -0,0 +1,137 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JPQL 조건절로 바꿀 수 있는 Specification.
+ * <p>
+ * key 는 조건의 종류와 조합(구조)만 나타내고 값은 포함하지 않는다.
+ * 그래서 같은 구조의 조건은 한 번 만든 JPQL 을 재사용하고 파라미터만 바인딩한다. ({@link CompiledSpecificationCache})
+ * JpaSpecificationExecutor 에는 일반 Specification 으로 그대로 사용할 수 있다.
+ */
+public interface CompilableSpecification<T> extends Specification<T> {
+
+    /**
+     * @return 조건이 없으면 빈 문자열
+     */
+    String key();
+
+    /**
+     * @param position 다음 위치 파라미터(?n) 번호. 사용한 만큼 증가시킨다.
+     * @return 조건이 없으면 null
+     */
+    String jpql(String alias, AtomicInteger position);
+
+    /**
+     * jpql 의 위치 파라미터 순서대로 값을 담는다.
+     */
+    void collectParameters(List<Object> parameters);
+
+    /**
+     * {@link Specification#and} 과 달리 결과도 CompilableSpecification 이다. (findAllCompiled 에 넘길 수 있다)
+     * 이름을 달리해서 Specification 의 and/or 를 가리지 않는다.
+     * 빈 조건({@link #empty()}, key 가 빈 문자열)은 Specification.and 에서 null predicate 가 빠지는 것처럼 결합에서 빠진다.
+     */
+    default CompilableSpecification<T> andCompilable(CompilableSpecification<T> other) {
+        return Composite.of(this, "and", other);
+    }
+
+    /**
+     * @see #andCompilable(CompilableSpecification)
+     */
+    default CompilableSpecification<T> orCompilable(CompilableSpecification<T> other) {
+        return Composite.of(this, "or", other);
+    }
+
+    static <T> CompilableSpecification<T> empty() {
+        return new Equal<>(null, null);
+    }
+
+    /**
+     * @param path 엔티티 기준 경로. 연관관계는 inner join 한다. (예: team.name)
+     * @param value null 이면 is null 조건이 된다. (= null 은 어떤 행과도 맞지 않는다)
+     */
+    static <T> CompilableSpecification<T> equal(String path, Object value) {
+        return new Equal<>(path, value);
+    }
+
+    record Equal<T>(String path, Object value) implements CompilableSpecification<T> {
+
+        @Override
+        public String key() {
+            if (path == null) {
+                return "";
+            }
+            return value == null ? path + " is null" : path + "=?";
+        }
+
+        @Override
+        public String jpql(String alias, AtomicInteger position) {
+            if (path == null) {
+                return null;
+            }
+            return value == null ? alias + "." + path + " is null" : alias + "." + path + " = ?" + position.getAndIncrement();
+        }
+
+        @Override
+        public void collectParameters(List<Object> parameters) {
+            if (path != null && value != null) {
+                parameters.add(value);
+            }
+        }
+
+        @Override
+        public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+            if (path == null) {
+                return null;
+            }
+            String[] names = path.split("\\.");
+            From<?, ?> from = root;
+            for (int i = 0; i < names.length - 1; i++) {
+                from = from.join(names[i], JoinType.INNER);
+            }
+            Path<Object> leaf = from.get(names[names.length - 1]);
+            return value == null ? builder.isNull(leaf) : builder.equal(leaf, value);
+        }
+    }
+
+    record Composite<T>(CompilableSpecification<T> left, String operator, CompilableSpecification<T> right,
+                        String key) implements CompilableSpecification<T> {
+
+        /**
+         * 한쪽이 null 이거나 빈 조건이면 다른 쪽을 그대로 반환한다. (둘 다 비었으면 left)
+         */
+        static <T> CompilableSpecification<T> of(CompilableSpecification<T> left, String operator,
+                                                 CompilableSpecification<T> right) {
+            if (right == null || right.key().isEmpty()) {
+                return left;
+            }
+            if (left.key().isEmpty()) {
+                return right;
+            }
+            return new Composite<>(left, operator, right, "(" + left.key() + " " + operator + " " + right.key() + ")");
+        }
+
+        @Override
+        public String jpql(String alias, AtomicInteger position) {
+            return "(" + left.jpql(alias, position) + " " + operator + " " + right.jpql(alias, position) + ")";
+        }
+
+        @Override
+        public void collectParameters(List<Object> parameters) {
+            left.collectParameters(parameters);
+            right.collectParameters(parameters);
+        }
+
+        @Override
+        public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+            Predicate l = left.toPredicate(root, query, builder);
+            Predicate r = right.toPredicate(root, query, builder);
+            return "and".equals(operator) ? builder.and(l, r) : builder.or(l, r);
+        }
+    }
+}
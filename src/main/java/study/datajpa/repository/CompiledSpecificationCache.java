@@ -0,0 +1,59 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.support.TtlCache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Specification 구조(key) 별로 만든 JPQL 을 캐시한다.
+ * 같은 JPQL 문자열은 Hibernate 의 쿼리 plan 캐시에서 SQL 변환 결과를 재사용하므로, 이후에는 파라미터 바인딩만 한다.
+ * (Criteria 쿼리는 매번 새 트리라서 plan 캐시를 타지 못한다)
+ */
+@Component
+public class CompiledSpecificationCache {
+
+    private final TtlCache<String, String> queries;
+
+    public CompiledSpecificationCache(@Value("${datajpa.spec-cache.ttl:1d}") Duration ttl,
+                                      @Value("${datajpa.spec-cache.max-size:1000}") int maxSize,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        this.queries = new TtlCache<>(ttl, maxSize);
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("datajpa.spec.cache", queries, TtlCache::hitCount)
+                    .tag("result", "hit")
+                    .description("compiled specification lookups")
+                    .register(registry);
+            FunctionCounter.builder("datajpa.spec.cache", queries, TtlCache::missCount)
+                    .tag("result", "miss")
+                    .description("compiled specification lookups")
+                    .register(registry);
+            Gauge.builder("datajpa.spec.cache.size", queries, TtlCache::size)
+                    .register(registry);
+        });
+    }
+
+    /**
+     * @param select 조건절 앞부분 (예: select m from Member m)
+     */
+    public String jpql(String select, String alias, CompilableSpecification<?> spec) {
+        return queries.get(select + "|" + spec.key(), key -> {
+            String where = spec.jpql(alias, new AtomicInteger(1));
+            return where == null ? select : select + " where " + where;
+        });
+    }
+
+    public long hitCount() {
+        return queries.hitCount();
+    }
+
+    public long missCount() {
+        return queries.missCount();
+    }
+}
@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+/**
+ * 페이지 조회 시 전체 건수를 구하는 방법
+ */
+public enum CountMode {
+    /** 매번 count 쿼리 (Page) */
+    EXACT,
+    /** TTL 동안 count 결과를 재사용하고 회원이 변경되면 무효화 (Page) */
+    CACHED,
+    /** count 없이 다음 페이지 존재 여부만 (Slice) */
+    NONE
+}
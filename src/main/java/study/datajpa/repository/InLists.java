@@ -0,0 +1,39 @@
+package study.datajpa.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 큰 IN 절 처리.
+ * 값이 수만 개 이상이면 DB 파라미터 개수 제한에 걸리고, SQL 이 커지고, 개수마다 다른 plan 이 생긴다.
+ * 값의 중복을 제거하고 chunkSize 개씩 나눠 조회한 뒤 결과를 합친다.
+ * chunkSize 를 2의 거듭제곱으로 두면 마지막 조각도 in_clause_parameter_padding 으로 정해진 plan 중 하나를 사용한다.
+ * 기본값 512 는 Oracle 의 IN 목록 1000 개 제한보다 작은 가장 큰 2의 거듭제곱이다.
+ */
+final class InLists {
+
+    private InLists() {
+    }
+
+    /**
+     * 조각마다 다른 값으로 조회하므로 한 행이 두 조각에서 나오지 않는다. (IN 조건 컬럼이 하나인 경우)
+     * 조각은 호출한 스레드와 영속성 컨텍스트에서 순서대로 실행하므로 결과는 모두 같은 영속성 컨텍스트의 엔티티이다.
+     */
+    static <T, R> List<R> chunked(Collection<T> values, int chunkSize, Function<List<T>, List<R>> query) {
+        if (values.isEmpty()) {
+            return List.of();
+        }
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        if (distinct.size() <= chunkSize) {
+            return query.apply(distinct);
+        }
+        List<R> result = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            result.addAll(query.apply(distinct.subList(from, Math.min(from + chunkSize, distinct.size()))));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Item;
+
+import java.util.Collection;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * 영속성 컨텍스트를 거치지 않고 native upsert 를 JDBC batch 로 실행한다. (batch 당 한 번의 왕복)
+     * 이미 있는 상품은 그대로 두므로 생성일도 바뀌지 않는다.
+     * 영속성 컨텍스트에 있는 상품에는 반영되지 않고, 아직 flush 되지 않은 변경보다 먼저 실행된다.
+     * @return 새로 추가된 상품 수
+     */
+    @Transactional
+    int upsertAll(Collection<Item> items);
+}
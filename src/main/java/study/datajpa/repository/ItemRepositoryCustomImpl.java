@@ -0,0 +1,73 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import study.datajpa.entity.Item;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private volatile String upsertSql;
+
+    public ItemRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                    @Value("${datajpa.upsert.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int upsertAll(Collection<Item> items) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now()); //batch 전체가 같은 생성일
+        int[][] counts = jdbcTemplate.batchUpdate(upsertSql(), items, batchSize, (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setTimestamp(2, now);
+        });
+        return inserted(counts);
+    }
+
+    /**
+     * 이미 있는 상품은 0 행이다. 드라이버가 행 수를 알려주지 않으면(SUCCESS_NO_INFO) 한 행으로 센다.
+     */
+    private static int inserted(int[][] counts) {
+        int rows = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            sql = dialect().upsert("item", List.of(
+                    UpsertDialect.Column.key("id", "varchar(255)"),
+                    UpsertDialect.Column.insertOnly("create_date", "timestamp(6)")));
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+    private UpsertDialect dialect() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return UpsertDialect.of(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("cannot resolve database product", e);
+        }
+    }
+}
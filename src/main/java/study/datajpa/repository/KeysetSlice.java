@@ -0,0 +1,17 @@
+package study.datajpa.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * count 쿼리 없이 다음 페이지 존재 여부와 다음 커서만 제공하는 keyset 페이지
+ */
+public record KeysetSlice<T>(List<T> content, boolean hasNext, String nextCursor) {
+
+    public <U> KeysetSlice<U> map(Function<? super T, ? extends U> converter) {
+        List<U> converted = content.stream()
+                .<U>map(converter)
+                .toList();
+        return new KeysetSlice<>(converted, hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,55 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 요청 단위로 Member.team, Team.members 연관을 모아서 IN 쿼리 한 번으로 읽는다.
+ * 같은 요청 안에서 이미 읽은 팀/회원 목록은 다시 조회하지 않는다.
+ */
+@Component
+@RequestScope
+public class MemberAssociationLoader {
+
+    private final BatchLoader<Long, Team> teams;
+    private final BatchLoader<Long, List<Member>> membersByTeam;
+
+    public MemberAssociationLoader(TeamRepository teamRepository, MemberRepository memberRepository,
+                                   @Value("${spring.jpa.properties.hibernate.default_batch_fetch_size:100}") int batchSize) {
+        this.teams = new BatchLoader<>(ids -> teamRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Team::getId, Function.identity())), batchSize);
+        this.membersByTeam = new BatchLoader<>(ids -> memberRepository.findByTeamIdIn(ids).stream()
+                .collect(Collectors.groupingBy(m -> m.getTeam().getId())), batchSize);
+    }
+
+    /**
+     * @return team_id 별 팀. 팀이 없는 회원은 제외된다.
+     */
+    public Map<Long, Team> loadTeamsOf(Collection<Member> members) {
+        //프록시의 식별자 조회는 초기화를 일으키지 않는다.
+        List<Long> teamIds = members.stream()
+                .filter(m -> m.getTeam() != null)
+                .map(m -> m.getTeam().getId())
+                .toList();
+        return teams.loadAll(teamIds);
+    }
+
+    public Team loadTeam(Long teamId) {
+        return teams.load(teamId);
+    }
+
+    public Map<Long, List<Member>> loadMembersOf(Collection<Team> teamList) {
+        Map<Long, List<Member>> result = membersByTeam.loadAll(teamList.stream().map(Team::getId).toList());
+        result.replaceAll((teamId, members) -> members == null ? List.of() : members);
+        return result;
+    }
+}
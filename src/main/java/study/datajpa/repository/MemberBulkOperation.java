@@ -0,0 +1,43 @@
+package study.datajpa.repository;
+
+import java.util.Map;
+
+/**
+ * {@link MemberBulkUpdater} 가 실행할 수 있는 변경. SQL 조각은 여기 정의된 것만 사용하고, 호출하는 쪽은 파라미터 값만 넘긴다.
+ * 새 변경이 필요하면 이 인터페이스에 record 를 추가한다.
+ */
+public sealed interface MemberBulkOperation {
+
+    /**
+     * native SQL set 절. version 증가는 {@link MemberBulkUpdater} 가 붙인다.
+     */
+    String setClause();
+
+    /**
+     * native SQL 조건. 갱신 후에도 조건을 만족할 수 있으므로 재개 위치는 member_id 로만 판단한다.
+     */
+    String predicate();
+
+    Map<String, ?> parameters();
+
+    /**
+     * {@link MemberRepositoryCustom#bulkAgePlus(int)} 와 같다. age 이상인 회원의 나이를 1 올린다.
+     */
+    record AgePlus(int age) implements MemberBulkOperation {
+
+        @Override
+        public String setClause() {
+            return "age = age + 1";
+        }
+
+        @Override
+        public String predicate() {
+            return "age >= :age";
+        }
+
+        @Override
+        public Map<String, ?> parameters() {
+            return Map.of("age", age);
+        }
+    }
+}
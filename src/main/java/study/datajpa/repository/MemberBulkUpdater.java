@@ -0,0 +1,184 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.BulkJobCheckpoint;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberChangedEvent;
+
+import java.util.List;
+
+/**
+ * member 테이블을 PK 구간(청크)으로 나눠 갱신한다.
+ * <p>
+ * 청크마다 별도 트랜잭션으로 커밋하므로 행 락은 한 청크 동안만 유지된다.
+ * 진행 위치는 {@link BulkJobCheckpoint} 에 청크와 함께 커밋되어, 같은 jobName 으로 다시 실행하면 이어서 처리한다.
+ * 실행할 수 있는 변경은 {@link MemberBulkOperation} 으로 정해져 있다.
+ * 영속성 컨텍스트 전체를 비우는 대신 변경된 회원만 2차 캐시와 현재 영속성 컨텍스트에서 제거한다.
+ */
+@Slf4j
+@Repository
+public class MemberBulkUpdater {
+
+    private static final String TABLE = "member";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final EntityManagerFactory emf;
+    private final TransactionTemplate chunkTx;
+    private final ApplicationEventPublisher publisher;
+    private final int defaultChunkSize;
+
+    public MemberBulkUpdater(EntityManagerFactory emf,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher publisher,
+                             @Value("${datajpa.bulk.chunk-size:1000}") int defaultChunkSize) {
+        this.emf = emf;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.publisher = publisher;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    /**
+     * {@link MemberRepositoryCustom#bulkAgePlus(int)} 의 청크 버전
+     */
+    public BulkUpdateProgress agePlus(String jobName, int age, BulkUpdateListener listener) {
+        return agePlus(jobName, age, defaultChunkSize, listener);
+    }
+
+    public BulkUpdateProgress agePlus(String jobName, int age, int chunkSize, BulkUpdateListener listener) {
+        return run(jobName, new MemberBulkOperation.AgePlus(age), chunkSize, listener);
+    }
+
+    /**
+     * 같은 jobName 으로 동시에 실행해도 청크마다 체크포인트 행을 잠그므로 같은 구간을 두 번 처리하지 않는다.
+     *
+     * @return 완료된 작업이면 아무것도 하지 않고 저장된 진행 상태를 반환한다.
+     */
+    public BulkUpdateProgress run(String jobName, MemberBulkOperation operation, int chunkSize,
+                                  BulkUpdateListener listener) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        createCheckpointIfAbsent(jobName);
+        while (true) {
+            ChunkResult chunk = chunkTx.execute(status -> updateChunk(jobName, operation, chunkSize));
+            detachFromCurrentContext(chunk.ids());
+            if (chunk.progress().completed()) {
+                log.debug("bulk job {} completed: {}", jobName, chunk.progress());
+                return chunk.progress();
+            }
+            listener.onChunk(chunk.progress());
+        }
+    }
+
+    private void createCheckpointIfAbsent(String jobName) {
+        try {
+            chunkTx.executeWithoutResult(status -> {
+                if (em.find(BulkJobCheckpoint.class, jobName) == null) {
+                    em.persist(new BulkJobCheckpoint(jobName));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("bulk job {} checkpoint created concurrently", jobName);
+        }
+    }
+
+    private ChunkResult updateChunk(String jobName, MemberBulkOperation operation, int chunkSize) {
+        //다른 실행이 청크를 처리하는 동안 기다린 뒤, 그 실행이 커밋한 위치부터 이어간다.
+        BulkJobCheckpoint checkpoint = em.find(BulkJobCheckpoint.class, jobName, LockModeType.PESSIMISTIC_WRITE);
+        if (checkpoint.isCompleted()) {
+            return new ChunkResult(List.of(), BulkUpdateProgress.of(checkpoint));
+        }
+        long from = checkpoint.getLastId() == null ? Long.MIN_VALUE : checkpoint.getLastId();
+
+        Query select = em.createNativeQuery(
+                        "select member_id from " + TABLE +
+                                " where member_id > :from and (" + operation.predicate() + ")" +
+                                " order by member_id")
+                .setParameter("from", from)
+                .setMaxResults(chunkSize);
+        operation.parameters().forEach(select::setParameter);
+        List<Long> ids = ((List<?>) select.getResultList()).stream()
+                .map(id -> ((Number) id).longValue())
+                .toList();
+        if (ids.isEmpty()) {
+            checkpoint.complete();
+            return new ChunkResult(ids, BulkUpdateProgress.of(checkpoint));
+        }
+
+        Long to = ids.get(ids.size() - 1);
+        Query update = em.createNativeQuery(
+                        "update " + TABLE + " set " + operation.setClause() + ", version = version + 1" +
+                                " where member_id > :from and member_id <= :to and (" + operation.predicate() + ")")
+                .setParameter("from", from)
+                .setParameter("to", to);
+        operation.parameters().forEach(update::setParameter);
+        //query space 를 지정하지 않으면 native update 는 2차 캐시 전체를 비운다. 변경된 회원만 커밋 후에 직접 제거한다.
+        update.unwrap(NativeQuery.class).addSynchronizedQuerySpace("bulk_job_checkpoint");
+        int updated = update.executeUpdate();
+
+        checkpoint.chunkDone(to, updated);
+        evictAfterCommit(ids);
+        return new ChunkResult(ids, BulkUpdateProgress.of(checkpoint));
+    }
+
+    private void evictAfterCommit(List<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Long id : ids) {
+                    emf.getCache().evict(Member.class, id);
+                }
+                publisher.publishEvent(MemberChangedEvent.all()); //청크당 한 번. 캐시마다 전체 무효화가 일어난다.
+                //member 를 조회한 쿼리 캐시 결과만 무효화된다.
+                TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+                if (timestamps != null) {
+                    timestamps.invalidate(new String[]{TABLE}, session);
+                }
+            }
+        });
+    }
+
+    /**
+     * 호출한 쪽의 영속성 컨텍스트(OSIV, 바깥 트랜잭션)에 남아있는 변경 전 회원을 준영속으로 만든다.
+     */
+    private void detachFromCurrentContext(List<Long> ids) {
+        EntityManager current = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (current == null || ids.isEmpty()) {
+            return;
+        }
+        SessionImplementor session = current.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                current.detach(managed);
+            }
+        }
+    }
+
+    private record ChunkResult(List<Long> ids, BulkUpdateProgress progress) {
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.MemberChangedEvent;
+import study.datajpa.support.MemberChangeListener;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원 목록의 ETag. 쿼리 없이 {@link MemberChangedEvent} 가 올 때마다 올라가는 변경 번호로 만든다.
+ * <p>
+ * 이벤트는 이 노드의 변경만 알 수 있으므로, max-staleness 마다 ETag 를 바꿔서 다른 노드의 변경이 보이기까지의 시간을 제한한다.
+ * ({@link MemberCountCache} 의 TTL 과 같은 전제) 노드마다 시작 번호가 달라서 다른 노드의 ETag 와 일치하지 않는다.
+ */
+@Component
+public class MemberChangeStamp implements MemberChangeListener {
+
+    private final long epoch = ThreadLocalRandom.current().nextLong() >>> 1;
+    private final AtomicLong changes = new AtomicLong();
+    private final long windowMillis;
+
+    public MemberChangeStamp(@Value("${datajpa.change-stamp.max-staleness:30s}") Duration maxStaleness) {
+        this.windowMillis = maxStaleness.toMillis();
+    }
+
+    public String etag() {
+        return "W/\"" + Long.toHexString(epoch) + "-" + changes.get() + "-" + System.currentTimeMillis() / windowMillis + "\"";
+    }
+
+    @Override
+    public void onMemberChanged(MemberChangedEvent event) {
+        changes.incrementAndGet();
+    }
+}
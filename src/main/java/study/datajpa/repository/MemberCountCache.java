@@ -0,0 +1,33 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.MemberChangedEvent;
+import study.datajpa.support.MemberChangeListener;
+import study.datajpa.support.TtlCache;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * 회원 count 쿼리 결과 캐시. 어떤 회원이든 변경되면 전체를 무효화한다.
+ */
+@Component
+public class MemberCountCache implements MemberChangeListener {
+
+    private final TtlCache<String, Long> counts;
+
+    public MemberCountCache(@Value("${datajpa.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${datajpa.count-cache.max-size:1000}") int maxSize) {
+        this.counts = new TtlCache<>(ttl, maxSize);
+    }
+
+    public long get(String key, LongSupplier countQuery) {
+        return counts.get(key, k -> countQuery.getAsLong());
+    }
+
+    @Override
+    public void onMemberChanged(MemberChangedEvent event) {
+        counts.invalidateAll();
+    }
+}
@@ -0,0 +1,40 @@
+package study.datajpa.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset 페이징의 위치 (username, member_id).
+ * 클라이언트에는 내부 구조를 감춘 opaque 토큰으로만 전달한다.
+ * username 이 null 이면 구분자 없이 id 만 담는다. (빈 문자열은 "id:")
+ */
+public record MemberCursor(String username, Long id) {
+
+    private static final char SEPARATOR = ':';
+
+    public String encode() {
+        String raw = username == null ? String.valueOf(id) : id + String.valueOf(SEPARATOR) + username;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return 토큰이 비어있으면 첫 페이지를 의미하는 null
+     * @throws IllegalArgumentException 형식이 맞지 않는 토큰
+     */
+    public static MemberCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return new MemberCursor(null, Long.valueOf(raw));
+            }
+            return new MemberCursor(raw.substring(separator + 1), Long.valueOf(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("invalid cursor: " + token, e);
+        }
+    }
+}
@@ -2,25 +2,50 @@ package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberChangedEvent;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public class MemberJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Transactional
     public Member save(Member member) {
         em.persist(member);
         return member;
     }
 
+    /**
+     * JDBC batch insert 로 대량 저장한다.
+     * batch_size 건마다 flush/clear 하므로 호출 전 영속성 컨텍스트에 있던 엔티티도 준영속 상태가 된다.
+     * @return 저장한 건수
+     */
+    @Transactional
+    public int saveAllInBatch(Collection<Member> members) {
+        return BatchInserts.persistAll(em, members, batchSize);
+    }
 
 
+
+    @Transactional
     public void delete(Member member){
         em.remove(member);
     }
@@ -72,11 +97,14 @@ public class MemberJpaRepository {
                 .getSingleResult();
     }
 
+    @Transactional
     public int bulkAgePlus(int age) {
-        return em.createQuery(
-                "update Member m set m.age = m.age +1 " +
+        int updated = em.createQuery(
+                "update versioned Member m set m.age = m.age +1 " +
                          "where m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
+        publisher.publishEvent(MemberChangedEvent.all()); //bulk 연산은 엔티티 이벤트가 없다.
+        return updated;
     }
 }
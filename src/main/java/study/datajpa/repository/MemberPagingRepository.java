@@ -0,0 +1,59 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * {@link CountMode} 에 따라 count 쿼리를 실행하거나, 캐시하거나, 생략하는 페이지 조회.
+ * EXACT, CACHED 는 Page 를, NONE 은 Slice 를 반환한다.
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberPagingRepository {
+
+    private final MemberRepository memberRepository;
+    private final MemberCountCache countCache;
+
+    public Slice<Member> findAll(Pageable pageable, CountMode mode) {
+        return page(pageable, mode,
+                () -> memberRepository.findAll(pageable),
+                memberRepository::findSliceAll,
+                "all", memberRepository::count);
+    }
+
+    public Slice<Member> findByAge(int age, Pageable pageable, CountMode mode) {
+        return page(pageable, mode,
+                () -> memberRepository.findByAge(age, pageable),
+                p -> memberRepository.findSliceByAge(age, p),
+                "age:" + age, () -> memberRepository.countByAge(age));
+    }
+
+    public Slice<MemberProjection> findByNativeProjectionsQuery(Pageable pageable, CountMode mode) {
+        return page(pageable, mode,
+                () -> memberRepository.findByNativeProjectionsQuery(pageable),
+                memberRepository::findSliceByNativeProjectionsQuery,
+                "all", memberRepository::count);
+    }
+
+    private <T> Slice<T> page(Pageable pageable, CountMode mode,
+                              Supplier<Page<T>> exact, Function<Pageable, Slice<T>> slice,
+                              String countKey, LongSupplier countQuery) {
+        return switch (mode) {
+            case EXACT -> exact.get();
+            case NONE -> slice.apply(pageable);
+            case CACHED -> PageableExecutionUtils.getPage(slice.apply(pageable).getContent(), pageable,
+                    () -> countCache.get(countKey, countQuery));
+        };
+    }
+}
@@ -0,0 +1,208 @@
+package study.datajpa.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import study.datajpa.entity.Member;
+import study.datajpa.support.JdbcAdmission;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * member_id 구간을 나눠 회원 전체를 병렬로 읽는다. (나이별/팀별 집계 등 분석 작업용)
+ * <p>
+ * 파티션마다 가상 스레드 하나와 자신만의 EntityManager/커넥션을 사용하고, 읽기 전용 트랜잭션에서 스트리밍으로 읽는다.
+ * 동시에 실행되는 파티션 수는 커넥션 풀 크기 - 1 로 제한해서 다른 요청이 쓸 커넥션을 남겨둔다.
+ * 한 파티션이 실패하면 나머지 파티션을 interrupt 하고 바로 예외를 던진다.
+ * {@link JdbcAdmission} 이 켜져 있으면 파티션마다 허가를 받는다.
+ */
+@Slf4j
+@Repository
+public class MemberPartitionScanner {
+
+    private final EntityManagerFactory emf;
+    private final int maxParallelism;
+    private final int fetchSize;
+    private final int clearInterval;
+    private final ObjectProvider<JdbcAdmission> admission;
+
+    public MemberPartitionScanner(EntityManagerFactory emf,
+                                  DataSource dataSource,
+                                  ObjectProvider<JdbcAdmission> admission,
+                                  @Value("${datajpa.export.fetch-size:500}") int fetchSize,
+                                  @Value("${datajpa.scan.clear-interval:1000}") int clearInterval) {
+        this.emf = emf;
+        this.maxParallelism = Math.max(1, maximumPoolSize(dataSource) - 1);
+        this.fetchSize = fetchSize;
+        this.clearInterval = clearInterval;
+        this.admission = admission;
+    }
+
+    /**
+     * @param identity    파티션마다 새 누적값을 만든다.
+     * @param accumulator 파티션 안에서 회원을 누적한다. 회원은 읽기 전용이며 주기적으로 준영속이 된다.
+     * @param reducer     파티션 결과를 member_id 순서대로 합친다.
+     */
+    public <A> A scan(int partitions,
+                      Supplier<A> identity,
+                      BiFunction<A, Member, A> accumulator,
+                      BinaryOperator<A> reducer) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        long[] range = idRange();
+        if (range == null) {
+            return identity.get();
+        }
+        List<long[]> bounds = split(range[0], range[1], partitions);
+        JdbcAdmission gate = admission.getIfAvailable();
+
+        Semaphore permits = new Semaphore(Math.min(bounds.size(), maxParallelism));
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CompletionService<A> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<A>, Integer> indexes = new HashMap<>();
+        try {
+            for (long[] bound : bounds) {
+                indexes.put(completion.submit(() -> {
+                    permits.acquire();
+                    try {
+                        if (gate == null) {
+                            return scanPartition(bound[0], bound[1], identity.get(), accumulator);
+                        }
+                        return gate.call(() -> scanPartition(bound[0], bound[1], identity.get(), accumulator));
+                    } finally {
+                        permits.release();
+                    }
+                }), indexes.size());
+            }
+            //끝나는 순서대로 확인해서 하나라도 실패하면 나머지를 기다리지 않고 취소한다.
+            List<A> results = new ArrayList<>(Collections.nCopies(bounds.size(), null));
+            for (int i = 0; i < bounds.size(); i++) {
+                Future<A> done = completion.take();
+                results.set(indexes.get(done), done.get());
+            }
+            A result = identity.get();
+            for (A partial : results) {
+                result = reducer.apply(result, partial);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("partition scan interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("partition scan failed", e.getCause());
+        } finally {
+            executor.shutdownNow(); //남은 파티션을 interrupt 한다. 완료를 기다리지 않는다.
+        }
+    }
+
+    /**
+     * @return [from, to] 구간. 회원이 없으면 null
+     */
+    private long[] idRange() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Object[] minMax = em.createQuery("select min(m.id), max(m.id) from Member m", Object[].class)
+                    .getSingleResult();
+            if (minMax[0] == null) {
+                return null;
+            }
+            return new long[]{(Long) minMax[0], (Long) minMax[1]};
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * [from, to] 를 partitions 개의 [lower, upper) 구간으로 나눈다. 마지막 구간의 upper 는 to + 1 이다.
+     */
+    static List<long[]> split(long from, long to, int partitions) {
+        long size = to - from + 1;
+        int count = (int) Math.min(partitions, size);
+        long step = size / count;
+        long remainder = size % count; //앞쪽 파티션에 한 건씩 더 준다.
+        List<long[]> bounds = new ArrayList<>(count);
+        long lower = from;
+        for (int i = 0; i < count; i++) {
+            long upper = lower + step + (i < remainder ? 1 : 0);
+            bounds.add(new long[]{lower, upper});
+            lower = upper;
+        }
+        return bounds;
+    }
+
+    private <A> A scanPartition(long lower, long upper, A result, BiFunction<A, Member, A> accumulator) {
+        EntityManager em = emf.createEntityManager();
+        Session session = em.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            session.doWork(connection -> connection.setReadOnly(true));
+            int count = 0;
+            var members = em.createQuery(
+                            "select m from Member m where m.id >= :lower and m.id < :upper order by m.id", Member.class)
+                    .setParameter("lower", lower)
+                    .setParameter("upper", upper)
+                    .setHint("org.hibernate.fetchSize", fetchSize)
+                    .getResultStream();
+            try (members) {
+                for (var it = members.iterator(); it.hasNext(); ) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException("partition [" + lower + ", " + upper + ") cancelled");
+                    }
+                    result = accumulator.apply(result, it.next());
+                    if (++count % clearInterval == 0) {
+                        em.clear();
+                    }
+                }
+            }
+            tx.commit();
+            log.debug("partition [{}, {}) scanned {} members", lower, upper, count);
+            return result;
+        } finally {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            em.close();
+        }
+    }
+
+    private static int maximumPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("cannot resolve connection pool size", e);
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
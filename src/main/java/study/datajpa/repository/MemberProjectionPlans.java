@@ -0,0 +1,168 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 프로젝션 타입(닫힌 인터페이스, record, 중첩 프로젝션)에 필요한 컬럼만 select 하는 JPQL 과
+ * 결과 행을 프로젝션으로 바꾸는 factory 를 타입별로 한 번만 만들어 재사용한다.
+ * SpEL 을 쓰는 열린 프로젝션({@link UsernameOnly})은 필요한 컬럼을 알 수 없으므로 지원하지 않는다.
+ */
+@Component
+public class MemberProjectionPlans {
+
+    public static final String ROOT_ALIAS = "m";
+
+    private final SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    private final Metamodel metamodel;
+    private final Map<Class<?>, Plan<?>> plans = new ConcurrentHashMap<>();
+
+    public MemberProjectionPlans(EntityManager em) {
+        this.metamodel = em.getMetamodel();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Plan<T> plan(Class<T> type) {
+        return (Plan<T>) plans.computeIfAbsent(type, this::create);
+    }
+
+    /**
+     * @param selectFrom where 절 없이 "select ... from Member m left join ..." 까지의 JPQL
+     */
+    public record Plan<T>(String selectFrom, Function<Tuple, T> factory) {
+    }
+
+    private <T> Plan<T> create(Class<T> type) {
+        List<String> columns = new ArrayList<>();
+        Map<String, String> joins = new LinkedHashMap<>();
+        Function<Row, Object> reader = reader(type, metamodel.entity(Member.class), ROOT_ALIAS, columns, joins);
+
+        StringBuilder jpql = new StringBuilder("select ")
+                .append(String.join(", ", columns))
+                .append(" from Member ").append(ROOT_ALIAS);
+        joins.forEach((path, alias) -> jpql.append(" left join ").append(path).append(' ').append(alias));
+
+        return new Plan<>(jpql.toString(), tuple -> type.cast(reader.apply(new Row(tuple))));
+    }
+
+    /**
+     * type 의 프로퍼티마다 select 컬럼을 추가하고, 같은 순서로 컬럼을 읽어 type 을 만드는 함수를 돌려준다.
+     */
+    private Function<Row, Object> reader(Class<?> type, ManagedType<?> entity, String alias,
+                                         List<String> columns, Map<String, String> joins) {
+        List<String> names = new ArrayList<>();
+        List<Function<Row, Object>> readers = new ArrayList<>();
+
+        for (Map.Entry<String, Class<?>> property : properties(type).entrySet()) {
+            String name = property.getKey();
+            Attribute<?, ?> attribute = entity.getAttribute(name);
+            names.add(name);
+
+            if (attribute.isCollection()) {
+                throw new IllegalArgumentException("collection property cannot be projected: " + type.getName() + "." + name);
+            }
+            if (attribute.isAssociation()) {
+                String joinAlias = joins.computeIfAbsent(alias + "." + name, path -> "j" + joins.size());
+                EntityType<?> target = metamodel.entity(attribute.getJavaType());
+                //left join 대상이 없으면 중첩 프로젝션도 null 이어야 하므로 식별자를 함께 읽는다.
+                columns.add(joinAlias + "." + idName(target));
+                Function<Row, Object> nested = reader(property.getValue(), target, joinAlias, columns, joins);
+                readers.add(row -> {
+                    Object id = row.next();
+                    Object value = nested.apply(row);
+                    return id == null ? null : value;
+                });
+            } else {
+                columns.add(alias + "." + name);
+                readers.add(Row::next);
+            }
+        }
+
+        if (type.isRecord()) {
+            Constructor<?> constructor = canonicalConstructor(type);
+            return row -> BeanUtils.instantiateClass(constructor, readAll(readers, row));
+        }
+        return row -> {
+            Object[] values = readAll(readers, row);
+            Map<String, Object> source = new HashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                source.put(names.get(i), values[i]);
+            }
+            return projectionFactory.createProjection(type, source);
+        };
+    }
+
+    private Map<String, Class<?>> properties(Class<?> type) {
+        Map<String, Class<?>> properties = new LinkedHashMap<>();
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                properties.put(component.getName(), component.getType());
+            }
+            return properties;
+        }
+        if (type.isInterface()) {
+            ProjectionInformation information = projectionFactory.getProjectionInformation(type);
+            if (!information.isClosed()) {
+                throw new IllegalArgumentException("open projection cannot be narrowed: " + type.getName());
+            }
+            information.getInputProperties()
+                    .forEach(descriptor -> properties.put(descriptor.getName(), descriptor.getPropertyType()));
+            return properties;
+        }
+        throw new IllegalArgumentException("projection must be a closed interface or a record: " + type.getName());
+    }
+
+    private static String idName(EntityType<?> entity) {
+        return entity.getId(entity.getIdType().getJavaType()).getName();
+    }
+
+    private static Constructor<?> canonicalConstructor(Class<?> recordType) {
+        Class<?>[] parameterTypes = Arrays.stream(recordType.getRecordComponents())
+                .map(RecordComponent::getType)
+                .toArray(Class<?>[]::new);
+        try {
+            return recordType.getDeclaredConstructor(parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object[] readAll(List<Function<Row, Object>> readers, Row row) {
+        Object[] values = new Object[readers.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readers.get(i).apply(row);
+        }
+        return values;
+    }
+
+    /**
+     * select 순서대로 컬럼을 읽는다.
+     */
+    private static final class Row {
+        private final Tuple tuple;
+        private int index;
+
+        private Row(Tuple tuple) {
+            this.tuple = tuple;
+        }
+
+        private Object next() {
+            return tuple.get(index++);
+        }
+    }
+}
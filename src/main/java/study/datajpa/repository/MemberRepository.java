@@ -4,18 +4,31 @@ import jakarta.persistence.LockModeType;
 import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberFreshness;
+import study.datajpa.dto.MemberSnapshot;
 import study.datajpa.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * 조회 메서드는 읽기 전용 트랜잭션으로 실행된다. (스냅샷/변경감지 없음, FlushMode.MANUAL, 읽기 전용 커넥션)
+ * 변경이 필요한 메서드는 @Transactional 로 다시 선언한다.
+ */
+@Transactional(readOnly = true)
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
 
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "member.byUsername")})
     Member findByUsername(String username);
 
     @Query("select m from Member m where m.username = :username and m.age = :age")
@@ -27,24 +40,49 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto (m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDtoList();
 
+    /**
+     * {@link MemberRepositoryCustom#findBynNames} 가 조각마다 호출한다. 값이 많으면 findBynNames 를 사용한다.
+     */
     @Query("select m from Member m where m.username in :names")
-    List<Member> findBynNames(@Param("names") List<String> names);
+    List<Member> findByUsernameIn(@Param("names") Collection<String> names);
+
+    @Query("select new study.datajpa.dto.MemberSnapshot(m.id, m.username, m.age) from Member m where m.id = :id")
+    Optional<MemberSnapshot> findSnapshotById(@Param("id") Long id); //MemberSnapshotCache
+
+    @Query("select new study.datajpa.dto.MemberFreshness(count(m), sum(m.version), max(m.LastModifiedDate)) from Member m where m.id = :id")
+    MemberFreshness findFreshnessById(@Param("id") Long id); //조건부 GET
 
 
     List<Member> findListByUsername(String username); //컬렉션
     Member findMemberByUsername(String username); //단건
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "member.byUsername")})
     Optional<Member> findOptionalByUsername(String username); //Optional
 
     Page<Member> findByAge(int age, Pageable pageable);
     //Slice<Member> findByAge(int age, Pageable pageable);
 
+    Slice<Member> findSliceByAge(int age, Pageable pageable); //count 쿼리 없이 size+1 조회
+
+    long countByAge(int age);
+
+    @Query("select m from Member m")
+    Slice<Member> findSliceAll(Pageable pageable);
+
+    /**
+     * 변경 이벤트를 발행하지 않는다. 캐시가 무효화되도록 {@link MemberRepositoryCustom#bulkAgePlus(int)} 를 사용한다.
+     */
     @Modifying(clearAutomatically = true) //excuteupdate임
-    @Query("update Member m set m.age = m.age+1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
+    @Query("update versioned Member m set m.age = m.age+1 where m.age >= :age")
+    @Transactional
+    int bulkAgePlusWithoutEvent(@Param("age") int age);
 
     @Query("select m from Member m join fetch m.team t")
     List<Member> findMemberFetchJoin();
 
+    List<Member> findByTeamIdIn(Collection<Long> teamIds);
+
     @EntityGraph(attributePaths = {"team"})
     @Override
     List<Member> findAll();
@@ -52,8 +90,16 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
     Member findReadOnlyByUsername(String username);
 
+    /**
+     * 여러 행을 잠글 때 교착상태가 생기지 않도록 항상 member_id 순서로 잠근다.
+     * jakarta.persistence.lock.timeout 힌트(3초)를 지원하는 DB 에서는 그 안에 락을 얻지 못하면 PessimisticLockingFailureException 이 발생한다.
+     * H2 는 쿼리별 힌트를 무시하고 세션의 LOCK_TIMEOUT 을 사용한다.
+     */
+    @Transactional
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    List<Member> findLockByUsername(String username);
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select m from Member m where m.username = :username order by m.id")
+    List<Member> findLockByUsername(@Param("username") String username);
 
     <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> Type);
 
@@ -66,4 +112,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             , countQuery = "select count(*) from member"
             , nativeQuery = true)
     Page<MemberProjection> findByNativeProjectionsQuery(Pageable pageable);
+
+    @Query(value = "select m.member_id as id, m.username as username, t.name as teamName " +
+            "from member m left join team t on m.team_id = t.team_id"
+            , nativeQuery = true)
+    Slice<MemberProjection> findSliceByNativeProjectionsQuery(Pageable pageable);
 }
@@ -1,9 +1,59 @@
 package study.datajpa.repository;
 
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberChangedEvent;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    /**
+     * (username, member_id) 순서의 keyset 페이징. offset, count 쿼리를 사용하지 않는다. username 이 null 인 회원이 먼저 온다.
+     * @param cursor 이전 페이지의 nextCursor 를 {@link MemberCursor#decode} 한 값, 첫 페이지는 null
+     */
+    KeysetSlice<Member> findAllByKeyset(MemberCursor cursor, int size);
+
+    KeysetSlice<Member> findByAgeKeyset(int age, MemberCursor cursor, int size);
+
+    /**
+     * 전체 회원을 서버 커서로 스트리밍한다. 커넥션이 유지되어야 하므로 트랜잭션 안에서 호출하고 반드시 close 해야 한다.
+     */
+    Stream<MemberDto> streamMemberDto();
+
+    /**
+     * findProjectionsByUsername 과 같지만 프로젝션에 필요한 컬럼만 조회한다. (닫힌 인터페이스, record, 중첩 프로젝션)
+     */
+    <T> List<T> findNarrowProjectionsByUsername(String username, Class<T> type);
+
+    /**
+     * age 이상인 회원의 나이를 1 올리고 {@link MemberChangedEvent#all()} 을 발행한다.
+     * bulk 연산은 엔티티 이벤트가 없으므로 이벤트로 캐시(count, 스냅샷, 응답)를 무효화한다.
+     */
+    @Transactional
+    int bulkAgePlus(int age);
+
+    /**
+     * 작업 큐처럼 조건에 맞는 회원을 최대 batchSize 건 member_id 순서로 잠그고 가져온다. (select ... for update skip locked)
+     * 다른 트랜잭션이 잠근 행은 기다리지 않고 건너뛰므로 여러 작업자가 서로 막히지 않는다.
+     * 락은 호출한 트랜잭션이 끝날 때 풀리므로 트랜잭션 밖에서는 호출할 수 없다.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    List<Member> claimBatch(Specification<Member> spec, int batchSize);
+
+    /**
+     * findAll(Specification) 과 같지만 같은 구조의 조건은 캐시된 JPQL 을 재사용하고 파라미터만 바인딩한다.
+     */
+    List<Member> findAllCompiled(CompilableSpecification<Member> spec);
+
+    /**
+     * username in :names. 이름이 많으면 중복을 제거하고 고정 크기로 나눠 순서대로 조회한 뒤 합친다.
+     */
+    List<Member> findBynNames(Collection<String> names);
 }
@@ -1,21 +1,165 @@
 package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.LockOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberChangedEvent;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
+    private final MemberProjectionPlans projectionPlans;
+    private final CompiledSpecificationCache compiledSpecifications;
+    private final ObjectProvider<MemberRepository> memberRepository; //자기 자신(리포지토리)이라 조회 시점에 찾는다.
+    private final ApplicationEventPublisher publisher;
+
+    @Value("${datajpa.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    @Value("${datajpa.in-list.chunk-size:512}")
+    private int inListChunkSize;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    @Override
+    public KeysetSlice<Member> findAllByKeyset(MemberCursor cursor, int size) {
+        return findKeyset(null, cursor, size);
+    }
+
+    @Override
+    public KeysetSlice<Member> findByAgeKeyset(int age, MemberCursor cursor, int size) {
+        return findKeyset(age, cursor, size);
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDto() {
+        //DTO 생성자 프로젝션은 영속성 컨텍스트에 들어가지 않으므로 길게 스트리밍해도 비울 것이 없다.
+        return em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " +
+                        "from Member m left join m.team t order by m.id", MemberDto.class)
+                .setHint("org.hibernate.fetchSize", exportFetchSize)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<Member> claimBatch(Specification<Member> spec, int batchSize) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Member> query = cb.createQuery(Member.class);
+        Root<Member> root = query.from(Member.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(cb.asc(root.get("id")));
+
+        return em.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("jakarta.persistence.lock.timeout", LockOptions.SKIP_LOCKED)
+                .setMaxResults(batchSize)
+                .getResultList();
+    }
+
+    @Override
+    public List<Member> findAllCompiled(CompilableSpecification<Member> spec) {
+        TypedQuery<Member> query = em.createQuery(
+                compiledSpecifications.jpql("select m from Member m", "m", spec), Member.class);
+        List<Object> parameters = new ArrayList<>();
+        spec.collectParameters(parameters);
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public int bulkAgePlus(int age) {
+        int updated = memberRepository.getObject().bulkAgePlusWithoutEvent(age);
+        publisher.publishEvent(MemberChangedEvent.all()); //MemberChangeNotifier 가 커밋 후에 한 번 더 전달한다.
+        return updated;
+    }
+
+    @Override
+    public List<Member> findBynNames(Collection<String> names) {
+        //조각은 선언된 쿼리 메서드로 실행한다. RepositoryQueryWarmer 가 조각 크기마다 미리 실행해 둔다.
+        MemberRepository repository = memberRepository.getObject();
+        return InLists.chunked(names, inListChunkSize, repository::findByUsernameIn);
+    }
+
+    @Override
+    public <T> List<T> findNarrowProjectionsByUsername(String username, Class<T> type) {
+        MemberProjectionPlans.Plan<T> plan = projectionPlans.plan(type);
+        return em.createQuery(plan.selectFrom() + " where m.username = :username", Tuple.class)
+                .setParameter("username", username)
+                .getResultList()
+                .stream()
+                .map(plan.factory())
+                .toList();
+    }
+
+    private KeysetSlice<Member> findKeyset(Integer age, MemberCursor after, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+
+        StringBuilder jpql = new StringBuilder("select m from Member m where 1 = 1");
+        if (age != null) {
+            jpql.append(" and m.age = :age");
+        }
+        //username 이 null 인 회원은 맨 앞에 온다. null 은 비교 연산으로 찾을 수 없으므로 따로 조건을 건다.
+        if (after != null && after.username() == null) {
+            jpql.append(" and ((m.username is null and m.id > :id) or m.username is not null)");
+        } else if (after != null) {
+            jpql.append(" and (m.username > :username or (m.username = :username and m.id > :id))");
+        }
+        jpql.append(" order by m.username asc nulls first, m.id asc");
+
+        TypedQuery<Member> query = em.createQuery(jpql.toString(), Member.class);
+        if (age != null) {
+            query.setParameter("age", age);
+        }
+        if (after != null) {
+            query.setParameter("id", after.id());
+        }
+        if (after != null && after.username() != null) {
+            query.setParameter("username", after.username());
+        }
+
+        //한 건을 더 조회해서 다음 페이지 존재 여부를 판단한다.
+        List<Member> result = query.setMaxResults(size + 1)
+                .getResultList();
+
+        boolean hasNext = result.size() > size;
+        List<Member> content = hasNext ? result.subList(0, size) : result;
+        String nextCursor = null;
+        if (hasNext) {
+            Member last = content.get(content.size() - 1);
+            nextCursor = new MemberCursor(last.getUsername(), last.getId()).encode();
+        }
+        return new KeysetSlice<>(content, hasNext, nextCursor);
+    }
 }
@@ -0,0 +1,70 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.entity.MemberChangedEvent;
+import study.datajpa.support.MemberChangeListener;
+import study.datajpa.support.TtlCache;
+
+import java.time.Duration;
+
+/**
+ * 회원 id → {@link MemberSnapshot} 캐시. 엔티티 대신 생성자 프로젝션으로 조회해서 영속성 컨텍스트를 거치지 않는다.
+ * <p>
+ * 회원이 변경되면 해당 id 를(bulk 연산이면 전체를) 무효화한다. ({@link study.datajpa.support.MemberChangeNotifier})
+ */
+@Component
+public class MemberSnapshotCache implements MemberChangeListener {
+
+    private final TtlCache<Long, MemberSnapshot> snapshots;
+    private final MemberRepository memberRepository;
+
+    public MemberSnapshotCache(MemberRepository memberRepository,
+                               @Value("${datajpa.snapshot-cache.ttl:10s}") Duration ttl,
+                               @Value("${datajpa.snapshot-cache.max-size:10000}") int maxSize,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.memberRepository = memberRepository;
+        this.snapshots = new TtlCache<>(ttl, maxSize);
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("datajpa.member.snapshot.cache", snapshots, TtlCache::hitCount)
+                    .tag("result", "hit")
+                    .description("member snapshot lookups")
+                    .register(registry);
+            FunctionCounter.builder("datajpa.member.snapshot.cache", snapshots, TtlCache::missCount)
+                    .tag("result", "miss")
+                    .description("member snapshot lookups")
+                    .register(registry);
+            Gauge.builder("datajpa.member.snapshot.cache.size", snapshots, TtlCache::size)
+                    .register(registry);
+        });
+    }
+
+    /**
+     * @return 없는 회원이면 null (캐시하지 않는다)
+     */
+    public MemberSnapshot get(Long id) {
+        return snapshots.get(id, key -> memberRepository.findSnapshotById(key).orElse(null));
+    }
+
+    @Override
+    public void onMemberChanged(MemberChangedEvent event) {
+        if (event.memberId() == null) {
+            snapshots.invalidateAll();
+        } else {
+            snapshots.invalidate(event.memberId());
+        }
+    }
+
+    public long hitCount() {
+        return snapshots.hitCount();
+    }
+
+    public long missCount() {
+        return snapshots.missCount();
+    }
+}
@@ -1,24 +1,29 @@
 package study.datajpa.repository;
 
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 import study.datajpa.entity.Member;
 
+/**
+ * 같은 구조의 조건은 JPQL 을 재사용할 수 있도록 {@link CompilableSpecification} 으로 만든다.
+ * @see MemberRepositoryCustom#findAllCompiled
+ */
 public class MemberSpec {
 
-    public static Specification<Member> teamName(final String teamName){
-        return (root, query, builder)->{
-            if(StringUtils.hasText(teamName)){
-                return null;
-            }
-            Join<Object, Object> team = root.join("team", JoinType.INNER);//회원과 조인
-            return builder.equal(team.get("name"), teamName);
-        } ;
+    /**
+     * 팀 이름이 없으면 조건을 적용하지 않는다.
+     */
+    public static CompilableSpecification<Member> teamName(final String teamName){
+        if(!StringUtils.hasText(teamName)){
+            return CompilableSpecification.empty();
+        }
+        return CompilableSpecification.equal("team.name", teamName);//회원과 조인
     }
 
-    public static Specification<Member> username(final String username){
-        return (root, query, builder)-> builder.equal(root.get("username"), username);
+    public static CompilableSpecification<Member> username(final String username){
+        return CompilableSpecification.equal("username", username);
+    }
+
+    public static CompilableSpecification<Member> age(final int age){
+        return CompilableSpecification.equal("age", age);
     }
 }
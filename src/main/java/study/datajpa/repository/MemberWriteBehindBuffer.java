@@ -0,0 +1,359 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberChangedEvent;
+import study.datajpa.support.JdbcAdmission;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 같은 회원의 age/username 변경을 메모리에서 합쳐(coalesce) 두었다가 JDBC batch update 로 한 번에 반영한다. (write-behind)
+ * datajpa.write-behind.enabled=true 일 때만 등록된다.
+ * <p>
+ * - flush-interval 마다, 또는 대기 중인 회원이 max-pending 이 되면 flush 한다.
+ * - 회원당 UPDATE 한 번, version 증가와 감사 필드 갱신도 flush 당 한 번이다. 변경 이벤트는 flush 당 하나다.
+ * - 종료 시(웹 서버가 멈춘 뒤) 남은 변경을 모두 flush 한다.
+ * - flush 전에는 조회에 반영되지 않는다. 영속성 컨텍스트로 같은 회원을 수정하면 낙관적 락 예외가 날 수 있다.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "datajpa.write-behind.enabled", havingValue = "true")
+public class MemberWriteBehindBuffer implements SmartLifecycle {
+
+    private static final String TABLE = "member";
+    private static final String AUDIT = ", version = version + 1, last_modified_date = ?, last_modified_by = ? where member_id = ?";
+    private static final int[][] NOTHING = new int[0][];
+
+    private final ConcurrentHashMap<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory emf;
+    private final TransactionTemplate flushTx;
+    private final ObjectProvider<JdbcAdmission> admission;
+    private final ApplicationEventPublisher publisher;
+    private final AuditorAware<String> auditorAware;
+    private final Duration flushInterval;
+    private final int maxPending;
+    private final int batchSize;
+    private final Timer flushTimer;
+    private volatile ScheduledExecutorService scheduler;
+
+    public MemberWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                   EntityManagerFactory emf,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher publisher,
+                                   AuditorAware<String> auditorAware,
+                                   @Value("${datajpa.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                   @Value("${datajpa.write-behind.max-pending:10000}") int maxPending,
+                                   @Value("${datajpa.write-behind.batch-size:1000}") int batchSize,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   ObjectProvider<JdbcAdmission> admission) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.admission = admission;
+        this.emf = emf;
+        this.flushTx = new TransactionTemplate(transactionManager);
+        this.flushTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.publisher = publisher;
+        this.auditorAware = auditorAware;
+        this.flushInterval = flushInterval;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.flushTimer = registry == null ? null : Timer.builder("datajpa.write-behind.flush")
+                .description("time spent writing buffered member updates")
+                .register(registry);
+        if (registry != null) {
+            counter(registry, "received", received);
+            counter(registry, "coalesced", coalesced);
+            counter(registry, "written", written);
+            counter(registry, "missing", missing);
+            counter(registry, "failed", failed);
+            Gauge.builder("datajpa.write-behind.pending", pending, Map::size)
+                    .description("members waiting to be flushed")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 감사자(last_modified_by)는 flush 하는 스레드가 아니라 변경을 요청한 시점에 구한다.
+     */
+    public void changeAge(Long memberId, int age) {
+        add(memberId, new PendingUpdate(null, age, currentAuditor()));
+    }
+
+    /**
+     * 대기 중인 변경에서 null 은 "바꾸지 않음" 이므로 username 을 null 로 바꿀 수는 없다.
+     */
+    public void changeUsername(Long memberId, String username) {
+        Objects.requireNonNull(username, "username");
+        add(memberId, new PendingUpdate(username, null, currentAuditor()));
+    }
+
+    private String currentAuditor() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+
+    private void add(Long memberId, PendingUpdate update) {
+        received.increment();
+        pending.merge(memberId, update, (older, newer) -> {
+            coalesced.increment();
+            return older.then(newer);
+        });
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            flush(); //시작 전/종료 후에는 바로 반영한다.
+        } else if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            current.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * 대기 중인 변경을 별도 트랜잭션으로 반영한다. 실패하면 그 사이 들어온 더 최신 값을 덮지 않고 다시 대기열에 넣는다.
+     *
+     * @return 갱신된 행 수. 그 사이 삭제된 회원은 세지 않는다.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            Map<Long, PendingUpdate> batch = drain();
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            long started = System.nanoTime();
+            int rows;
+            try {
+                JdbcAdmission gate = admission.getIfAvailable(); //스케줄러 스레드는 요청 수 제한 밖이다.
+                rows = gate == null ? flushTx.execute(status -> write(batch))
+                        : gate.call(() -> flushTx.execute(status -> write(batch)));
+            } catch (RuntimeException e) {
+                failed.add(batch.size());
+                batch.forEach((id, update) -> pending.merge(id, update, (newer, older) -> older.then(newer)));
+                throw e;
+            }
+            written.add(rows);
+            missing.add(batch.size() - rows);
+            if (flushTimer != null) {
+                flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            return rows;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("member write-behind flush failed, {} members pending", pending.size(), e);
+        }
+    }
+
+    private Map<Long, PendingUpdate> drain() {
+        Map<Long, PendingUpdate> batch = new LinkedHashMap<>();
+        for (Long id : pending.keySet()) {
+            PendingUpdate update = pending.remove(id);
+            if (update != null) {
+                batch.put(id, update);
+            }
+        }
+        return batch;
+    }
+
+    private int write(Map<Long, PendingUpdate> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Long, PendingUpdate>> both = new ArrayList<>();
+        List<Map.Entry<Long, PendingUpdate>> ageOnly = new ArrayList<>();
+        List<Map.Entry<Long, PendingUpdate>> usernameOnly = new ArrayList<>();
+        for (Map.Entry<Long, PendingUpdate> entry : batch.entrySet()) {
+            PendingUpdate update = entry.getValue();
+            (update.age() == null ? usernameOnly : update.username() == null ? ageOnly : both).add(entry);
+        }
+
+        int rows = updated(batchUpdate("update " + TABLE + " set username = ?, age = ?" + AUDIT, both, (ps, entry) -> {
+            ps.setString(1, entry.getValue().username());
+            ps.setInt(2, entry.getValue().age());
+            ps.setTimestamp(3, now);
+            ps.setString(4, entry.getValue().auditor());
+            ps.setLong(5, entry.getKey());
+        }));
+        rows += updated(batchUpdate("update " + TABLE + " set age = ?" + AUDIT, ageOnly, (ps, entry) -> {
+            ps.setInt(1, entry.getValue().age());
+            ps.setTimestamp(2, now);
+            ps.setString(3, entry.getValue().auditor());
+            ps.setLong(4, entry.getKey());
+        }));
+        rows += updated(batchUpdate("update " + TABLE + " set username = ?" + AUDIT, usernameOnly, (ps, entry) -> {
+            ps.setString(1, entry.getValue().username());
+            ps.setTimestamp(2, now);
+            ps.setString(3, entry.getValue().auditor());
+            ps.setLong(4, entry.getKey());
+        }));
+        evictAfterCommit(batch.keySet());
+        return rows;
+    }
+
+    private int[][] batchUpdate(String sql, List<Map.Entry<Long, PendingUpdate>> rows,
+                                ParameterizedPreparedStatementSetter<Map.Entry<Long, PendingUpdate>> setter) {
+        return rows.isEmpty() ? NOTHING : jdbcTemplate.batchUpdate(sql, rows, batchSize, setter);
+    }
+
+    /**
+     * 드라이버가 행 수를 알려주지 않으면(SUCCESS_NO_INFO) 한 행으로 센다.
+     */
+    private static int updated(int[][] counts) {
+        int rows = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 변경된 회원만 2차 캐시에서 제거하고, 변경 이벤트는 flush 당 한 번({@link MemberChangedEvent#all()}) 발행한다.
+     * 이벤트마다 캐시 전체가 무효화되므로 회원마다 발행하지 않는다.
+     */
+    private void evictAfterCommit(Collection<Long> ids) {
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        SessionImplementor session = em == null ? null : em.unwrap(SessionImplementor.class);
+        List<Long> evicted = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Long id : evicted) {
+                    emf.getCache().evict(Member.class, id);
+                }
+                publisher.publishEvent(MemberChangedEvent.all());
+                TimestampsCache timestamps = session == null ? null : session.getFactory().getCache().getTimestampsCache();
+                if (timestamps != null) {
+                    timestamps.invalidate(new String[]{TABLE}, session);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    /**
+     * 스케줄러를 멈춘 뒤 남은 변경을 모두 반영한다. 이후 들어오는 변경은 바로 반영된다.
+     */
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor == null) {
+            return;
+        }
+        scheduler = null;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(flushInterval.toMillis() + 30_000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int flushed = flush();
+        log.info("member write-behind stopped: {} members flushed on shutdown", flushed);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * 웹 서버(graceful shutdown 포함)보다 늦게 멈춰서, 처리 중이던 요청의 변경까지 반영한다.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    private void counter(MeterRegistry registry, String result, LongAdder adder) {
+        FunctionCounter.builder("datajpa.write-behind.updates", adder, LongAdder::sum)
+                .tag("result", result)
+                .description("member attribute updates handled by the write-behind buffer")
+                .register(registry);
+    }
+
+    /**
+     * null 인 속성은 변경하지 않는다. 감사자는 마지막 변경을 요청한 사용자이다.
+     */
+    /**
+     * null 인 필드는 바꾸지 않는다.
+     */
+    private record PendingUpdate(String username, Integer age, String auditor) {
+
+        PendingUpdate then(PendingUpdate newer) {
+            return new PendingUpdate(newer.username != null ? newer.username : username,
+                    newer.age != null ? newer.age : age,
+                    newer.auditor);
+        }
+    }
+}
@@ -2,23 +2,40 @@ package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Team;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public class TeamJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Transactional
     public Team save(Team team) {
         em.persist(team);
         return team;
     }
 
+    /**
+     * @see MemberJpaRepository#saveAllInBatch(Collection)
+     */
+    @Transactional
+    public int saveAllInBatch(Collection<Team> teams) {
+        return BatchInserts.persistAll(em, teams, batchSize);
+    }
+
+    @Transactional
     public void delete(Team team) {
         em.remove(team);
     }
@@ -0,0 +1,85 @@
+package study.datajpa.repository;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 데이터베이스별 upsert(없으면 추가, 있으면 그대로 둔다) SQL. 바인딩 파라미터 순서는 columns 순서와 같다.
+ */
+public interface UpsertDialect {
+
+    String upsert(String table, List<Column> columns);
+
+    static UpsertDialect of(String databaseProductName) {
+        return switch (databaseProductName) {
+            case "H2" -> new Merge();
+            case "PostgreSQL" -> new OnConflict();
+            default -> throw new IllegalStateException("upsert is not supported on " + databaseProductName);
+        };
+    }
+
+    /**
+     * @param sqlType 파라미터의 타입을 추론하지 못하는 데이터베이스(H2 의 values 절 등)를 위한 cast 타입
+     */
+    record Column(String name, String sqlType, Mode mode) {
+
+        public enum Mode {
+            /** 행을 찾는 기준 */
+            KEY,
+            /** 처음 추가할 때만 쓴다. (예: 생성일) */
+            INSERT_ONLY
+        }
+
+        public static Column key(String name, String sqlType) {
+            return new Column(name, sqlType, Mode.KEY);
+        }
+
+        public static Column insertOnly(String name, String sqlType) {
+            return new Column(name, sqlType, Mode.INSERT_ONLY);
+        }
+    }
+
+    /**
+     * SQL:2003 MERGE (H2, Oracle, SQL Server, DB2)
+     */
+    class Merge implements UpsertDialect {
+
+        @Override
+        public String upsert(String table, List<Column> columns) {
+            return "merge into " + table + " t" +
+                    " using (values (" + join(columns, all(), column -> "cast(? as " + column.sqlType() + ")", ", ") + "))" +
+                    " s(" + join(columns, all(), Column::name, ", ") + ")" +
+                    " on " + join(columns, mode(Column.Mode.KEY), column -> "t." + column.name() + " = s." + column.name(), " and ") +
+                    " when not matched then insert (" + join(columns, all(), Column::name, ", ") + ")" +
+                    " values (" + join(columns, all(), column -> "s." + column.name(), ", ") + ")";
+        }
+    }
+
+    /**
+     * insert ... on conflict (PostgreSQL)
+     */
+    class OnConflict implements UpsertDialect {
+
+        @Override
+        public String upsert(String table, List<Column> columns) {
+            return "insert into " + table + " (" + join(columns, all(), Column::name, ", ") + ")" +
+                    " values (" + join(columns, all(), column -> "?", ", ") + ")" +
+                    " on conflict (" + join(columns, mode(Column.Mode.KEY), Column::name, ", ") + ")" +
+                    " do nothing";
+        }
+    }
+
+    private static Predicate<Column> all() {
+        return column -> true;
+    }
+
+    private static Predicate<Column> mode(Column.Mode mode) {
+        return column -> column.mode() == mode;
+    }
+
+    private static String join(List<Column> columns, Predicate<Column> filter, Function<Column, String> mapper, String delimiter) {
+        return columns.stream().filter(filter).map(mapper).collect(Collectors.joining(delimiter));
+    }
+}
@@ -0,0 +1,214 @@
+package study.datajpa.support;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * datajpa.auditing.mode=fast 일 때 AuditingEntityListener 대신 감사 필드를 채운다.
+ * <p>
+ * - 엔티티 클래스마다 감사 필드의 위치(VarHandle, 프로퍼티 인덱스)를 한 번만 계산한다.
+ * - 시각은 flush 마다 한 번 읽어서 그 flush 의 모든 엔티티에 같은 값을 쓴다.
+ * - 감사자는 {@link AuditorAware} 에서 구한다. ({@link TransactionScopedAuditorAware} 는 트랜잭션마다 한 번)
+ * <p>
+ * insert/update 직전(flush 중)에 값을 채우므로 persist 직후의 엔티티에는 아직 감사 필드가 없다.
+ * <p>
+ * 리스너는 세션 팩토리를 만들 때 {@link Integrator} 로 등록한다. (hibernate.integrator_provider)
+ * flush 시각은 스레드에 두고, 트랜잭션이 끝나면 지운다.
+ */
+@Component
+@ConditionalOnProperty(name = "datajpa.auditing.mode", havingValue = "fast")
+public class FastAuditingListener implements PreInsertEventListener, PreUpdateEventListener,
+        FlushEventListener, AutoFlushEventListener, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<FlushStamp> STAMP = new ThreadLocal<>();
+
+    private final Map<String, AuditFields> fieldsByEntity = new ConcurrentHashMap<>();
+    private final ObjectProvider<AuditorAware<?>> auditorAware;
+    private final Clock clock;
+
+    public FastAuditingListener(ObjectProvider<AuditorAware<?>> auditorAware) {
+        this.auditorAware = auditorAware;
+        this.clock = Clock.systemDefaultZone();
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        Integrators.append(hibernateProperties, new ListenerIntegrator());
+    }
+
+    private class ListenerIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            EventListenerRegistry registry = sessionFactory.getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+            registry.prependListeners(EventType.FLUSH, FastAuditingListener.this);
+            registry.prependListeners(EventType.AUTO_FLUSH, FastAuditingListener.this);
+            registry.appendListeners(EventType.PRE_INSERT, FastAuditingListener.this);
+            registry.appendListeners(EventType.PRE_UPDATE, FastAuditingListener.this);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        STAMP.remove(); //새 flush 는 시각을 다시 읽는다.
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        STAMP.remove();
+    }
+
+    @Override
+    public boolean onPreInsert(PreInsertEvent event) {
+        AuditFields fields = fieldsOf(event.getPersister());
+        if (fields.isEmpty()) {
+            return false;
+        }
+        LocalDateTime now = now(event.getSession());
+        Object auditor = fields.hasAuditor() ? currentAuditor() : null;
+        Object[] state = event.getState();
+        fields.createdDate.set(event.getEntity(), state, now);
+        fields.lastModifiedDate.set(event.getEntity(), state, now);
+        fields.createdBy.set(event.getEntity(), state, auditor);
+        fields.lastModifiedBy.set(event.getEntity(), state, auditor);
+        return false;
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        AuditFields fields = fieldsOf(event.getPersister());
+        if (fields.isEmpty()) {
+            return false;
+        }
+        Object[] state = event.getState();
+        fields.lastModifiedDate.set(event.getEntity(), state, now(event.getSession()));
+        if (fields.lastModifiedBy.isPresent()) {
+            fields.lastModifiedBy.set(event.getEntity(), state, currentAuditor());
+        }
+        return false;
+    }
+
+    private LocalDateTime now(EventSource session) {
+        FlushStamp stamp = STAMP.get();
+        if (stamp == null || stamp.session.get() != session) {
+            stamp = new FlushStamp(new WeakReference<>(session), LocalDateTime.now(clock));
+            STAMP.set(stamp);
+            //풀/가상 스레드에 이전 트랜잭션의 시각이 남지 않게 한다. (롤백 포함)
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> STAMP.remove());
+        }
+        return stamp.now;
+    }
+
+    private Object currentAuditor() {
+        AuditorAware<?> aware = auditorAware.getIfAvailable();
+        return aware == null ? null : aware.getCurrentAuditor().orElse(null);
+    }
+
+    private AuditFields fieldsOf(EntityPersister persister) {
+        return fieldsByEntity.computeIfAbsent(persister.getEntityName(),
+                name -> AuditFields.of(persister.getMappedClass(), persister.getPropertyNames()));
+    }
+
+    private record FlushStamp(WeakReference<Object> session, LocalDateTime now) {
+    }
+
+    private record AuditFields(AuditField createdDate, AuditField lastModifiedDate,
+                               AuditField createdBy, AuditField lastModifiedBy) {
+
+        static AuditFields of(Class<?> type, String[] propertyNames) {
+            return new AuditFields(
+                    AuditField.find(type, CreatedDate.class, propertyNames),
+                    AuditField.find(type, LastModifiedDate.class, propertyNames),
+                    AuditField.find(type, CreatedBy.class, propertyNames),
+                    AuditField.find(type, LastModifiedBy.class, propertyNames));
+        }
+
+        boolean isEmpty() {
+            return !createdDate.isPresent() && !lastModifiedDate.isPresent()
+                    && !createdBy.isPresent() && !lastModifiedBy.isPresent();
+        }
+
+        boolean hasAuditor() {
+            return createdBy.isPresent() || lastModifiedBy.isPresent();
+        }
+    }
+
+    /**
+     * @param index 엔티티 상태 배열에서의 위치, 매핑되지 않은 필드면 -1
+     */
+    private record AuditField(VarHandle handle, int index) {
+
+        static final AuditField NONE = new AuditField(null, -1);
+
+        static AuditField find(Class<?> type, Class<? extends Annotation> annotation, String[] propertyNames) {
+            for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(annotation)) {
+                        return new AuditField(handle(current, field),
+                                Arrays.asList(propertyNames).indexOf(field.getName()));
+                    }
+                }
+            }
+            return NONE;
+        }
+
+        private static VarHandle handle(Class<?> owner, Field field) {
+            try {
+                return MethodHandles.privateLookupIn(owner, MethodHandles.lookup())
+                        .unreflectVarHandle(field);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("cannot access audit field " + field, e);
+            }
+        }
+
+        boolean isPresent() {
+            return handle != null;
+        }
+
+        /**
+         * 엔티티 필드와 insert/update 에 사용될 상태 배열을 함께 바꾼다.
+         */
+        void set(Object entity, Object[] state, Object value) {
+            if (handle == null) {
+                return;
+            }
+            handle.set(entity, value);
+            if (index >= 0) {
+                state[index] = value;
+            }
+        }
+    }
+}
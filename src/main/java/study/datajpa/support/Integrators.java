@@ -0,0 +1,31 @@
+package study.datajpa.support;
+
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * hibernate.integrator_provider 는 값이 하나이므로 여러 HibernatePropertiesCustomizer 가 Integrator 를 덧붙일 수 있게 이어 준다.
+ */
+final class Integrators {
+
+    static final String PROVIDER = "hibernate.integrator_provider";
+
+    private Integrators() {
+    }
+
+    static void append(Map<String, Object> hibernateProperties, Integrator integrator) {
+        IntegratorProvider previous = (IntegratorProvider) hibernateProperties.get(PROVIDER);
+        hibernateProperties.put(PROVIDER, (IntegratorProvider) () -> {
+            List<Integrator> integrators = new ArrayList<>();
+            if (previous != null) {
+                integrators.addAll(previous.getIntegrators());
+            }
+            integrators.add(integrator);
+            return integrators;
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package study.datajpa.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 가상 스레드 모드에서 JDBC 를 쓰는 작업의 동시 실행 수 제한.
+ * <p>
+ * 가상 스레드는 작업마다 만들어지므로 동시에 실행되는 작업 수의 상한이 없다.
+ * 풀보다 많은 작업은 HikariCP 대기열에 쌓였다가 connectionTimeout 후에 실패하므로, 커넥션 풀 크기만큼만 들여보내고 timeout 안에 차례가 오지 않으면 바로 실패시킨다.
+ * 웹 요청은 {@link JdbcAdmissionFilter}, 자체 스레드에서 DB 를 쓰는 작업(파티션 조회, write-behind flush)은 {@link #call(Supplier)} 로 들어온다.
+ * 비동기로 응답을 쓰는 export 는 필터가 끝난 뒤 다른 스레드에서 커넥션을 잡으므로 그 스레드에서 직접 허가를 받는다.
+ * 이미 허가를 가진 스레드가 다시 들어오면 허가를 더 잡지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.admission.enabled", havingValue = "true")
+public class JdbcAdmission {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final ThreadLocal<Boolean> admitted = new ThreadLocal<>();
+
+    public JdbcAdmission(DataSource dataSource,
+                         @Value("${datajpa.admission.max-concurrent:0}") int maxConcurrent,
+                         @Value("${datajpa.admission.timeout:5s}") Duration timeout,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        int size = maxConcurrent > 0 ? maxConcurrent : maximumPoolSize(dataSource);
+        this.permits = new Semaphore(size, true);
+        this.timeoutNanos = timeout.toNanos();
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("datajpa.admission.waiting", permits, Semaphore::getQueueLength)
+                    .description("tasks waiting for a JDBC admission permit")
+                    .register(registry);
+            Gauge.builder("datajpa.admission.in.use", permits, p -> size - p.availablePermits())
+                    .register(registry);
+        });
+        log.info("jdbc admission gate: {} concurrent tasks", size);
+    }
+
+    /**
+     * 허가를 받아 work 를 실행한다.
+     *
+     * @throws IllegalStateException timeout 안에 허가를 받지 못한 경우
+     */
+    public <T> T call(Supplier<T> work) {
+        if (admitted.get() != null) {
+            return work.get();
+        }
+        if (!tryAcquire()) {
+            throw new IllegalStateException("no JDBC admission permit within " + Duration.ofNanos(timeoutNanos));
+        }
+        try {
+            return work.get();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @return timeout 안에 허가를 받았으면 true. 받았으면 반드시 {@link #release()} 해야 하고, 그 사이 이 스레드의 {@link #call(Supplier)} 은 허가를 다시 받지 않는다.
+     */
+    public boolean tryAcquire() {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        admitted.set(Boolean.TRUE);
+        return true;
+    }
+
+    public void release() {
+        admitted.remove();
+        permits.release();
+    }
+
+    private static int maximumPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("cannot resolve connection pool size", e);
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
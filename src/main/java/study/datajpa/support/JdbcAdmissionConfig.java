@@ -0,0 +1,27 @@
+package study.datajpa.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * {@link JdbcAdmissionFilter} 를 datajpa.admission.url-patterns 에만 등록한다.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "datajpa.admission.enabled", havingValue = "true")
+public class JdbcAdmissionConfig {
+
+    @Bean
+    public FilterRegistrationBean<JdbcAdmissionFilter> jdbcAdmissionFilter(
+            JdbcAdmission admission,
+            @Value("${datajpa.admission.url-patterns:/members/*,/members2/*}") List<String> urlPatterns) {
+        FilterRegistrationBean<JdbcAdmissionFilter> registration =
+                new FilterRegistrationBean<>(new JdbcAdmissionFilter(admission));
+        registration.setUrlPatterns(urlPatterns);
+        return registration;
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.support;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 가상 스레드 모드의 요청 수 제한.
+ * <p>
+ * open-in-view 에서는 요청이 커넥션을 잡고 있으므로 동시에 처리할 요청 수를 {@link JdbcAdmission} 으로 제한하고,
+ * timeout 안에 차례가 오지 않으면 바로 503 을 응답한다.
+ * DB 를 쓰는 URL 에만 등록한다. (JdbcAdmissionConfig, actuator 헬스 체크는 제한하지 않는다.)
+ * async dispatch 는 거르지 않는다. StreamingResponseBody 는 요청 스레드가 허가를 반납한 뒤 다른 스레드에서 DB 를 쓰므로
+ * 그 작업이 직접 허가를 받는다. (MemberExportController)
+ */
+public class JdbcAdmissionFilter extends OncePerRequestFilter {
+
+    private final JdbcAdmission admission;
+
+    public JdbcAdmissionFilter(JdbcAdmission admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!admission.tryAcquire()) {
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "too many concurrent requests");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            admission.release();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package study.datajpa.support;
+
+import study.datajpa.entity.MemberChangedEvent;
+
+/**
+ * 회원 변경으로 무효화할 캐시. {@link MemberChangeNotifier} 가 변경 직후와 커밋 후에 한 번씩 호출한다.
+ */
+public interface MemberChangeListener {
+
+    /**
+     * 같은 변경에 대해 여러 번 호출될 수 있으므로 멱등이어야 한다.
+     */
+    void onMemberChanged(MemberChangedEvent event);
+}
@@ -0,0 +1,106 @@
+package study.datajpa.support;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.MemberChangedEvent;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link MemberChangedEvent} 를 모든 {@link MemberChangeListener} 에 전달한다.
+ * <p>
+ * 변경 직후에 한 번, 커밋 후에 한 번 더 전달한다.
+ * 커밋 전에는 다른 트랜잭션이 아직 바뀌지 않은 값을 다시 읽어 캐시에 넣을 수 있기 때문이다. 트랜잭션 밖의 변경은 바로 한 번만 전달한다.
+ * <p>
+ * 커밋 후 전달은 트랜잭션마다 synchronization 하나에 모은다. 같은 회원은 한 번만 전달하고,
+ * 바뀐 회원이 max-ids 를 넘거나 bulk 변경이 있으면 {@link MemberChangedEvent#all()} 하나로 전달한다.
+ * (대량 저장에서 행마다 synchronization 과 무효화가 쌓이지 않는다)
+ */
+@Component
+public class MemberChangeNotifier {
+
+    private final ObjectProvider<MemberChangeListener> listenerProvider;
+    private final int maxIds;
+    private volatile List<MemberChangeListener> listeners;
+
+    public MemberChangeNotifier(ObjectProvider<MemberChangeListener> listenerProvider,
+                                @Value("${datajpa.member-change.max-ids:100}") int maxIds) {
+        this.listenerProvider = listenerProvider; //캐시가 리포지토리에 의존하므로 처음 쓸 때 찾는다.
+        this.maxIds = maxIds;
+    }
+
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        changed(event);
+    }
+
+    /**
+     * 엔티티 리스너처럼 행마다 호출되는 곳은 이벤트를 발행하지 않고 직접 호출한다.
+     */
+    public void changed(MemberChangedEvent event) {
+        notifyListeners(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(event);
+    }
+
+    private void notifyListeners(MemberChangedEvent event) {
+        List<MemberChangeListener> current = listeners;
+        if (current == null) {
+            current = listenerProvider.orderedStream().toList();
+            listeners = current;
+        }
+        for (MemberChangeListener listener : current) {
+            listener.onMemberChanged(event);
+        }
+    }
+
+    /**
+     * 트랜잭션에서 바뀐 회원. 다른 synchronization 의 afterCommit 에서 등록되어도 실행되도록 afterCompletion 에서 전달한다.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Set<Long> ids = new LinkedHashSet<>();
+        private boolean all;
+
+        void add(MemberChangedEvent event) {
+            if (all || (!event.isBulk() && ids.contains(event.memberId()))) {
+                return;
+            }
+            if (event.isBulk() || ids.size() >= maxIds) {
+                all = true;
+                ids.clear();
+                return;
+            }
+            ids.add(event.memberId());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MemberChangeNotifier.this);
+            if (status != STATUS_COMMITTED) {
+                return;
+            }
+            if (all) {
+                notifyListeners(MemberChangedEvent.all());
+                return;
+            }
+            for (Long id : ids) {
+                notifyListeners(new MemberChangedEvent(id));
+            }
+        }
+    }
+}
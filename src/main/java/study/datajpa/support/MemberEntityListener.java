@@ -0,0 +1,27 @@
+package study.datajpa.support;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberChangedEvent;
+
+/**
+ * 엔티티를 통한 회원 변경을 {@link MemberChangeNotifier} 에 알린다. 커밋 후 무효화는 트랜잭션마다 한 번으로 모인다.
+ * JPQL bulk 연산은 엔티티 이벤트가 발생하지 않으므로 호출하는 쪽에서 {@link MemberChangedEvent#all()} 을 발행해야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberEntityListener {
+
+    private final MemberChangeNotifier notifier;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Member member) {
+        notifier.changed(new MemberChangedEvent(member.getId()));
+    }
+}
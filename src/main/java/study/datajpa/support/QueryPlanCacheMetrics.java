@@ -0,0 +1,38 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate 쿼리 plan 캐시(HQL 해석 결과) 의 hit/miss.
+ * 값을 모으려면 Hibernate 통계가 필요하므로 datajpa.metrics.query-plan.enabled=true 일 때만 등록하고 통계를 켠다.
+ */
+@Component
+@ConditionalOnProperty(name = "datajpa.metrics.query-plan.enabled", havingValue = "true")
+public class QueryPlanCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public QueryPlanCacheMetrics(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true); //hibernate.generate_statistics 와 같다.
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("datajpa.hibernate.query.plan", statistics, Statistics::getQueryPlanCacheHitCount)
+                .tag("result", "hit")
+                .description("Hibernate query plan cache lookups")
+                .register(registry);
+        FunctionCounter.builder("datajpa.hibernate.query.plan", statistics, Statistics::getQueryPlanCacheMissCount)
+                .tag("result", "miss")
+                .description("Hibernate query plan cache lookups")
+                .register(registry);
+    }
+}
@@ -0,0 +1,160 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+import java.util.stream.Collectors;
+
+/**
+ * 리포지토리 메서드별 지연시간, 반환 행 수, 실행한 SQL 수, hydrate 한 엔티티 수를 기록한다.
+ * 실행한 SQL 수가 반환 행 수만큼 늘어나면 N+1, 프로젝션인데 엔티티 수가 0이 아니면 엔티티 전체 조회를 의심할 수 있다.
+ * SQL 수는 {@link StatementCounter} 가 켜져 있을 때만 기록한다.
+ * <p>
+ * 태그: repository, method, signature(파라미터 타입 포함), outcome(success|error), exception(예외 클래스 이름, 정상이면 none)
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private static final double[] PERCENTILES = {0.5, 0.99};
+    private static final ThreadLocal<Boolean> SUPPRESSED = new ThreadLocal<>();
+
+    private final String repository;
+    private final ObjectProvider<MeterRegistry> registry;
+    private final ObjectProvider<StatementCounter> statementCounter;
+    private final ObjectProvider<EntityLoadCounter> entityLoadCounter;
+    private final Map<Key, Meters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * 리포지토리 생성 시점에는 의존 빈이 준비되지 않았을 수 있으므로 첫 호출 때 꺼내 쓴다.
+     */
+    public RepositoryMetricsInterceptor(String repository, ObjectProvider<MeterRegistry> registry,
+                                        ObjectProvider<StatementCounter> statementCounter,
+                                        ObjectProvider<EntityLoadCounter> entityLoadCounter) {
+        this.repository = repository;
+        this.registry = registry;
+        this.statementCounter = statementCounter;
+        this.entityLoadCounter = entityLoadCounter;
+    }
+
+    /**
+     * 실제 요청이 아닌 호출(시작 시 warm-up 등)을 metric 에 남기지 않는다.
+     */
+    static void withoutMetrics(Runnable work) {
+        SUPPRESSED.set(Boolean.TRUE);
+        try {
+            work.run();
+        } finally {
+            SUPPRESSED.remove();
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (SUPPRESSED.get() != null) {
+            return invocation.proceed();
+        }
+        StatementCounter statementCounter = this.statementCounter.getIfAvailable(); //꺼져 있으면 SQL 수는 기록하지 않는다.
+        EntityLoadCounter entityLoadCounter = this.entityLoadCounter.getObject();
+        long statements = statementCounter == null ? 0 : statementCounter.current();
+        long entities = entityLoadCounter.current();
+        long start = System.nanoTime();
+        Class<?> exception = null;
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass();
+            throw e;
+        } finally {
+            Meters m = meters.computeIfAbsent(new Key(invocation.getMethod(), exception), this::register);
+            m.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (statementCounter != null) {
+                m.statements.record(statementCounter.current() - statements);
+            }
+            m.entities.record(entityLoadCounter.current() - entities);
+            long rows = exception == null ? rows(result) : -1;
+            if (rows >= 0) {
+                m.rows.record(rows);
+            }
+        }
+    }
+
+    /**
+     * @return 행 수를 알 수 없는 반환 타입(Stream, 스칼라 등)은 -1
+     */
+    private static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean || result instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+
+    private Meters register(Key key) {
+        Tags tags = Tags.of(
+                "repository", repository,
+                "method", key.method().getName(),
+                "signature", signature(key.method()),
+                "outcome", key.exception() == null ? "success" : "error",
+                "exception", key.exception() == null ? "none" : key.exception().getSimpleName());
+        return new Meters(
+                Timer.builder("datajpa.repository.invocation")
+                        .tags(tags)
+                        .publishPercentiles(PERCENTILES)
+                        .register(registry.getObject()),
+                summary("datajpa.repository.rows", tags),
+                summary("datajpa.repository.statements", tags),
+                summary("datajpa.repository.entities", tags));
+    }
+
+    /**
+     * 오버로드된 메서드(findAll(Pageable), findAll(Sort) 등)를 구분한다. 예: findAll(Pageable)
+     */
+    private static String signature(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", method.getName() + "(", ")"));
+    }
+
+    private DistributionSummary summary(String metric, Tags tags) {
+        return DistributionSummary.builder(metric)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .register(registry.getObject());
+    }
+
+    /**
+     * @param exception 정상 종료면 null
+     */
+    private record Key(Method method, Class<?> exception) {
+    }
+
+    private record Meters(Timer latency, DistributionSummary rows, DistributionSummary statements,
+                          DistributionSummary entities) {
+    }
+}
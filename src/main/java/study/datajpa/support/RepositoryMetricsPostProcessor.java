@@ -0,0 +1,38 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * 모든 Spring Data 리포지토리 프록시에 {@link RepositoryMetricsInterceptor} 를 추가한다.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<StatementCounter> statementCounter;
+    private final ObjectProvider<EntityLoadCounter> entityLoadCounter;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                          ObjectProvider<StatementCounter> statementCounter,
+                                          ObjectProvider<EntityLoadCounter> entityLoadCounter) {
+        this.meterRegistry = meterRegistry;
+        this.statementCounter = statementCounter;
+        this.entityLoadCounter = entityLoadCounter;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RepositoryMetricsInterceptor(
+                            repositoryInformation.getRepositoryInterface().getSimpleName(),
+                            meterRegistry, statementCounter, entityLoadCounter))));
+        }
+        return bean;
+    }
+}
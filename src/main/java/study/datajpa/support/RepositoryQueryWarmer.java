@@ -0,0 +1,196 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 배포 직후 첫 요청들이 쿼리 파싱/SQL 변환 비용을 치르지 않도록, 웹 서버가 요청을 받기 전에 선언된 리포지토리 조회 메서드를 한 번씩 실행한다.
+ * <p>
+ * - 임의의 파라미터로 읽기 전용 트랜잭션에서 실행하고 롤백한다. 변경/락 메서드는 실행하지 않는다.
+ * - 컬렉션 파라미터(IN 절)는 in_clause_parameter_padding 의 크기(1, 2, 4, ... in-list-max)마다 실행한다.
+ *   in-list-max 는 IN 목록 조각 크기(datajpa.in-list.chunk-size)와 같아야 조각이 모두 warm-up 된 plan 을 사용한다.
+ * - 커스텀 구현(fragment) 메서드는 대상이 아니다. 큰 IN 절은 선언된 쿼리 메서드에 위임해서 warm-up 범위에 들어오게 한다.
+ * - 리포지토리별 소요 시간은 로그와 datajpa.query.warmup 타이머로 남긴다. datajpa.repository.* metric 에는 남기지 않는다.
+ * - datajpa.warmup.enabled=false 로 끌 수 있다. 테스트는 기본으로 끈다. (src/test/resources/config/application.yml)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryQueryWarmer implements SmartInitializingSingleton {
+
+    private final ListableBeanFactory beanFactory;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int inListMax;
+
+    public RepositoryQueryWarmer(ListableBeanFactory beanFactory,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${datajpa.warmup.in-list-max:${datajpa.in-list.chunk-size:512}}") int inListMax) {
+        this.beanFactory = beanFactory;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.inListMax = inListMax;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        RepositoryMetricsInterceptor.withoutMetrics(this::warmUp); //가짜 인자로 실행한 호출은 리포지토리 metric 에 남기지 않는다.
+    }
+
+    private void warmUp() {
+        Repositories repositories = new Repositories(beanFactory);
+        long started = System.nanoTime();
+        int total = 0;
+        int failed = 0;
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            long repositoryStarted = System.nanoTime();
+            int queries = 0;
+            for (Method method : information.getQueryMethods()) {
+                if (!isReadOnly(method)) {
+                    continue;
+                }
+                for (Object[] arguments : argumentsFor(method, information.getDomainType())) {
+                    queries++;
+                    if (!invoke(repository, method, arguments)) {
+                        failed++;
+                        break;
+                    }
+                }
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - repositoryStarted);
+            record(information.getRepositoryInterface().getSimpleName(), elapsed);
+            log.info("query warm-up {}: {} executions in {}ms", information.getRepositoryInterface().getSimpleName(),
+                    queries, elapsed.toMillis());
+            total += queries;
+        }
+        log.info("query warm-up finished: {} executions ({} failed) in {}ms",
+                total, failed, Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private boolean invoke(Object repository, Method method, Object[] arguments) {
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try {
+                    Object result = method.invoke(repository, arguments);
+                    if (result instanceof AutoCloseable closeable) { //Stream
+                        closeable.close();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    status.setRollbackOnly();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("query warm-up failed: {}", method, e);
+            return false;
+        }
+    }
+
+    private static boolean isReadOnly(Method method) {
+        return !method.isAnnotationPresent(Modifying.class) && !method.isAnnotationPresent(Lock.class);
+    }
+
+    /**
+     * 컬렉션 파라미터가 있으면 패딩 크기마다 하나씩 인자 목록을 만든다.
+     */
+    private List<Object[]> argumentsFor(Method method, Class<?> domainType) {
+        List<Object[]> result = new ArrayList<>();
+        boolean hasCollection = false;
+        for (Class<?> type : method.getParameterTypes()) {
+            hasCollection |= Collection.class.isAssignableFrom(type);
+        }
+        for (int size = 1; size <= (hasCollection ? inListMax : 1); size <<= 1) {
+            Object[] arguments = new Object[method.getParameterCount()];
+            for (int i = 0; i < arguments.length; i++) {
+                ResolvableType type = ResolvableType.forMethodParameter(method, i);
+                arguments[i] = dummy(type, domainType, size);
+            }
+            result.add(arguments);
+        }
+        return result;
+    }
+
+    private static Object dummy(ResolvableType type, Class<?> domainType, int collectionSize) {
+        Class<?> raw = type.resolve(Object.class);
+        if (Collection.class.isAssignableFrom(raw)) {
+            Class<?> element = type.asCollection().resolveGeneric(0);
+            List<Object> values = new ArrayList<>(collectionSize);
+            for (int i = 0; i < collectionSize; i++) {
+                values.add(element == String.class ? "warmup" + i : dummy(ResolvableType.forClass(element), domainType, 1));
+            }
+            return Set.class.isAssignableFrom(raw) ? new LinkedHashSet<>(values) : values;
+        }
+        if (raw == String.class) {
+            return "warmup";
+        }
+        if (raw == int.class || raw == Integer.class) {
+            return 0;
+        }
+        if (raw == long.class || raw == Long.class) {
+            return 0L;
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            return false;
+        }
+        if (raw == Pageable.class) {
+            return PageRequest.of(0, 1);
+        }
+        if (raw == Sort.class) {
+            return Sort.unsorted();
+        }
+        if (raw == Class.class) {
+            return domainType; //동적 프로젝션
+        }
+        if (raw == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (raw == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (raw.isEnum()) {
+            return raw.getEnumConstants()[0];
+        }
+        return null; //실행에 실패하면 건너뛴다.
+    }
+
+    private void record(String repository, Duration elapsed) {
+        meterRegistry.ifAvailable(registry -> Timer.builder("datajpa.query.warmup")
+                .tag("repository", repository)
+                .description("time spent executing repository queries once at startup")
+                .register(registry)
+                .record(elapsed));
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * 임계값보다 오래 걸린 SQL 을 바인딩 파라미터가 채워진 형태로 남긴다.
+ */
+@Slf4j
+@Component
+public class SlowQueryLogger extends SimpleJdbcEventListener {
+
+    private final long thresholdNanos;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Counter slowQueries;
+
+    public SlowQueryLogger(@Value("${datajpa.metrics.slow-query-threshold:200ms}") Duration threshold,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.thresholdNanos = threshold.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (timeElapsedNanos < thresholdNanos) {
+            return;
+        }
+        log.warn("slow query {}ms: {}", Duration.ofNanos(timeElapsedNanos).toMillis(), statementInformation.getSqlWithValues());
+        counter().increment();
+    }
+
+    private Counter counter() {
+        Counter counter = slowQueries;
+        if (counter == null) {
+            counter = Counter.builder("datajpa.jdbc.slow.queries")
+                    .description("SQL statements slower than datajpa.metrics.slow-query-threshold")
+                    .register(meterRegistry.getObject());
+            slowQueries = counter;
+        }
+        return counter;
+    }
+}
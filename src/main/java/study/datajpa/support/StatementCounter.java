@@ -0,0 +1,29 @@
+package study.datajpa.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트로 현재 스레드에서 실행된 SQL 문(batch 는 1회)을 센다.
+ * 구간의 실행 횟수는 전후 {@link #current()} 값의 차이로 구한다.
+ * 모든 SQL 마다 실행되므로 datajpa.metrics.statements.enabled=true 일 때만 등록한다. (N+1 확인용 테스트, 진단)
+ */
+@Component
+@ConditionalOnProperty(name = "datajpa.metrics.statements.enabled", havingValue = "true")
+public class StatementCounter extends SimpleJdbcEventListener {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        COUNT.get()[0]++;
+    }
+
+    public long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.support;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * DB 왕복 없이 애플리케이션에서 시간 순서의 64비트 id 를 발급한다. {@link TimeOrderedIdGenerator}
+ * <p>
+ * 여러 노드에서 실행할 때는 노드마다 다른 spring.jpa.properties.datajpa.id.node (0~1023) 를 지정해야 한다.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface TimeOrderedId {
+}
@@ -0,0 +1,67 @@
+package study.datajpa.support;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * [0][41비트 epoch 이후 밀리초][10비트 노드][12비트 순번] 형태의 id. (snowflake)
+ * <p>
+ * 같은 밀리초에 순번을 다 쓰거나 시계가 뒤로 가면 다음 밀리초의 순번을 앞당겨 사용한다.
+ * 따라서 한 노드 안에서는 항상 증가하고, 노드가 다르면 겹치지 않는다.
+ * 상태는 노드별로 하나만 두어 이 생성기를 쓰는 모든 엔티티가 공유한다.
+ */
+public class TimeOrderedIdGenerator implements IdentifierGenerator {
+
+    public static final String NODE_SETTING = "datajpa.id.node";
+
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+    private static final Map<Long, AtomicLong> STATES = new ConcurrentHashMap<>();
+
+    private final long node;
+    private final AtomicLong state; //(epoch 이후 밀리초 << SEQUENCE_BITS) | 순번
+
+    public TimeOrderedIdGenerator(TimeOrderedId config, Member idMember, CustomIdGeneratorCreationContext context) {
+        this(context.getServiceRegistry()
+                .getService(ConfigurationService.class)
+                .getSetting(NODE_SETTING, StandardConverters.INTEGER, 0));
+    }
+
+    TimeOrderedIdGenerator(long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException(NODE_SETTING + " must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+        this.state = STATES.computeIfAbsent(node, key -> new AtomicLong());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return next();
+    }
+
+    long next() {
+        while (true) {
+            long last = state.get();
+            long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+            long candidate = now > last ? now : last + 1;
+            if (state.compareAndSet(last, candidate)) {
+                long millis = candidate >>> SEQUENCE_BITS;
+                long sequence = candidate & ((1L << SEQUENCE_BITS) - 1);
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package study.datajpa.support;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 감사자(auditor)를 트랜잭션마다 한 번만 구한다. 같은 트랜잭션에서 저장/수정되는 엔티티는 모두 같은 값을 가진다.
+ * 트랜잭션 밖에서는 호출할 때마다 구한다.
+ */
+public class TransactionScopedAuditorAware implements AuditorAware<String> {
+
+    private final Supplier<String> resolver;
+
+    public TransactionScopedAuditorAware(Supplier<String> resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<String> getCurrentAuditor() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.ofNullable(resolver.get());
+        }
+        Optional<String> auditor = (Optional<String>) TransactionSynchronizationManager.getResource(this);
+        if (auditor == null) {
+            auditor = Optional.ofNullable(resolver.get());
+            TransactionSynchronizationManager.bindResource(this, auditor);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionScopedAuditorAware.this);
+                }
+            });
+        }
+        return auditor;
+    }
+}
@@ -0,0 +1,88 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 가상 스레드가 캐리어 스레드에 고정(pinning)된 구간을 JFR(jdk.VirtualThreadPinned) 로 감지해서 남긴다.
+ * synchronized 블록 안에서 I/O 를 기다리면 캐리어 스레드를 놓지 못하므로, JDBC 드라이버/커넥션 풀/Hibernate 에서 생긴 것을 따로 표시한다.
+ * <p>
+ * 결과는 datajpa.virtual.pinned{jdbc=true|false} 카운터와 스택 상단을 포함한 warn 로그로 남는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.pinning.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final List<String> JDBC_PACKAGES = List.of(
+            "java.sql.", "javax.sql.", "org.h2.", "com.zaxxer.hikari.", "com.p6spy.", "org.hibernate.");
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${datajpa.pinning.threshold:20ms}") Duration threshold,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(EVENT, this::report);
+        recording.startAsync();
+        stream = recording;
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void report(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        boolean jdbc = frames.stream().anyMatch(VirtualThreadPinningMonitor::isJdbcFrame);
+        meterRegistry.ifAvailable(registry -> Counter.builder("datajpa.virtual.pinned")
+                .tag("jdbc", String.valueOf(jdbc))
+                .description("virtual threads pinned to their carrier longer than datajpa.pinning.threshold")
+                .register(registry)
+                .increment());
+        log.warn("virtual thread pinned for {}ms (jdbc={}):\n\t{}", event.getDuration().toMillis(), jdbc,
+                frames.stream()
+                        .limit(LOGGED_FRAMES)
+                        .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                                + ":" + frame.getLineNumber())
+                        .collect(Collectors.joining("\n\t")));
+    }
+
+    private static boolean isJdbcFrame(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return JDBC_PACKAGES.stream().anyMatch(type::startsWith);
+    }
+}
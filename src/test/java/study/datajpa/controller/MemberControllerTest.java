@@ -0,0 +1,187 @@
+package study.datajpa.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.support.StatementCounter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "datajpa.metrics.statements.enabled=true")
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    MemberResponseCache responseCache;
+    @Autowired
+    StatementCounter statementCounter;
+    @Autowired
+    EntityManager em;
+
+    @Test
+    @DisplayName("ETag 가 같으면 304 를 반환한다")
+    public void notModified() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("member1", 10));
+        em.flush();
+        String etag = mockMvc.perform(get("/members/{id}", member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when //then
+        mockMvc.perform(get("/members/{id}", member.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("회원이 변경되면 ETag 가 바뀌고 200 을 반환한다")
+    public void modified() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("member1", 10));
+        em.flush();
+        String etag = mockMvc.perform(get("/members/{id}", member.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        member.setUsername("member2");
+        em.flush();
+
+        //then
+        mockMvc.perform(get("/members/{id}", member.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    @DisplayName("목록의 ETag 가 같으면 쿼리 없이 304 를 반환한다")
+    public void listNotModifiedWithoutQuery() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        em.flush();
+        String etag = mockMvc.perform(get("/members"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        long statements = statementCounter.current();
+
+        //when //then
+        mockMvc.perform(get("/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(statementCounter.current()).isEqualTo(statements);
+    }
+
+    @Test
+    @DisplayName("목록 응답은 직렬화된 본문을 캐시하고, 회원이 변경되면 다시 만든다")
+    public void listCached() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        em.flush();
+        String first = mockMvc.perform(get("/members"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long hits = responseCache.hitCount();
+
+        //when
+        String second = mockMvc.perform(get("/members")).andReturn().getResponse().getContentAsString();
+        memberRepository.save(new Member("member2", 20));
+        em.flush();
+        String third = mockMvc.perform(get("/members")).andReturn().getResponse().getContentAsString();
+
+        //then
+        assertThat(second).isEqualTo(first);
+        assertThat(responseCache.hitCount()).isEqualTo(hits + 1);
+        assertThat(third).contains("member2");
+    }
+
+    @Test
+    @DisplayName("회원 페이지를 고정된 형식으로 바로 쓴다")
+    public void page() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        memberRepository.save(new Member("member1", 10, team));
+        memberRepository.save(new Member("member2", 20));
+        memberRepository.save(new Member("member3", 30));
+        em.flush();
+
+        //when //then
+        mockMvc.perform(get("/members/page").param("size", "2").param("sort", "username"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].username").value("member1"))
+                .andExpect(jsonPath("$.content[0].teamName").value("teamA"))
+                .andExpect(jsonPath("$.page.totalElements").value(3))
+                .andExpect(jsonPath("$.page.totalPages").value(2));
+        mockMvc.perform(get("/members/page").param("size", "2").param("page", "1").param("count", "NONE"))
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.page.hasNext").value(false));
+    }
+
+    @Test
+    @DisplayName("팀 이름이 바뀌면 다음 페이지 응답에 반영된다")
+    public void pageTeamRenamed() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        memberRepository.save(new Member("member1", 10, team));
+        em.flush();
+        mockMvc.perform(get("/members/page"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        //when
+        team.setName("teamB");
+        em.flush();
+
+        //then
+        mockMvc.perform(get("/members/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].teamName").value("teamB"));
+    }
+
+    @Test
+    @DisplayName("지원하지 않는 정렬 속성은 400 을 반환한다")
+    public void pageUnsupportedSort() throws Exception {
+        mockMvc.perform(get("/members/page").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("keyset 의 잘못된 cursor, size 는 400")
+    public void keysetBadRequest() throws Exception {
+        mockMvc.perform(get("/members/keyset").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/keyset").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/keyset").param("size", "1000000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("members2 는 없는 id, 숫자가 아닌 id 에 404")
+    public void snapshotNotFound() throws Exception {
+        mockMvc.perform(get("/members2/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/members2/{id}", "abc"))
+                .andExpect(status().isNotFound());
+    }
+}
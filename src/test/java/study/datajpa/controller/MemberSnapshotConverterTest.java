@@ -0,0 +1,80 @@
+package study.datajpa.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSnapshotCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSnapshotConverterTest {
+
+    @Autowired
+    MemberSnapshotConverter converter;
+    @Autowired
+    MemberSnapshotCache cache;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManager em;
+
+    @Test
+    @DisplayName("같은 id 는 두 번째부터 캐시에서 찾고, 엔티티를 영속성 컨텍스트에 올리지 않는다")
+    public void cached(){
+        //given
+        Member member = memberRepository.save(new Member("member1", 10));
+        em.flush();
+        em.clear();
+        long hits = cache.hitCount();
+
+        //when
+        MemberSnapshot first = converter.convert(String.valueOf(member.getId()));
+        MemberSnapshot second = converter.convert(String.valueOf(member.getId()));
+
+        //then
+        assertThat(first).isEqualTo(new MemberSnapshot(member.getId(), "member1", 10));
+        assertThat(second).isSameAs(first);
+        assertThat(cache.hitCount()).isEqualTo(hits + 1);
+        assertThat(em.getEntityManagerFactory().getPersistenceUnitUtil()
+                .isLoaded(em.getReference(Member.class, member.getId()))).isFalse();
+    }
+
+    @Test
+    @DisplayName("회원이 변경되면 캐시를 무효화한다")
+    public void invalidated(){
+        //given
+        Member member = memberRepository.save(new Member("member1", 10));
+        em.flush();
+        converter.convert(String.valueOf(member.getId()));
+
+        //when
+        member.setUsername("member2");
+        em.flush();
+
+        //then
+        assertThat(converter.convert(String.valueOf(member.getId())).username()).isEqualTo("member2");
+    }
+
+    @Test
+    @DisplayName("bulk 연산 후에는 변경된 나이를 반환한다")
+    public void invalidatedByBulk(){
+        //given
+        Member member = memberRepository.save(new Member("member1", 10));
+        em.flush();
+        converter.convert(String.valueOf(member.getId()));
+
+        //when
+        memberRepository.bulkAgePlus(10);
+
+        //then
+        assertThat(converter.convert(String.valueOf(member.getId())).age()).isEqualTo(11);
+    }
+}
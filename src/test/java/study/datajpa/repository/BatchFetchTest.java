@@ -0,0 +1,106 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.support.StatementCounter;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "datajpa.metrics.statements.enabled=true")
+@Transactional
+class BatchFetchTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    StatementCounter statementCounter;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 100; i++) {
+            Team team = teamRepository.save(new Team("batchTeam" + i));
+            memberRepository.save(new Member("batchMember" + i, i, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("회원 100명의 팀 조회는 IN 쿼리 한 번")
+    public void memberTeamBatchFetch(){
+        //given
+        List<Member> members = findBatchMembers();
+
+        //when
+        long before = statementCounter.current();
+        for (Member member : members) {
+            member.getTeam().getName();
+        }
+
+        //then
+        assertThat(statementCounter.current() - before).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("팀 100개의 회원 컬렉션 조회는 IN 쿼리 한 번")
+    public void teamMembersBatchFetch(){
+        //given
+        List<Team> teams = em.createQuery("select t from Team t where t.name like 'batchTeam%'", Team.class)
+                .getResultList();
+
+        //when
+        long before = statementCounter.current();
+        for (Team team : teams) {
+            team.getMembers().size();
+        }
+
+        //then
+        assertThat(statementCounter.current() - before).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("loader 는 중복 키를 제거하고 한 번만 조회한다")
+    public void associationLoader(){
+        //given
+        MemberAssociationLoader loader = new MemberAssociationLoader(teamRepository, memberRepository, 100);
+        List<Member> members = findBatchMembers();
+
+        //when
+        long before = statementCounter.current();
+        Map<Long, Team> teams = loader.loadTeamsOf(members);
+        loader.loadTeamsOf(members);
+        loader.loadTeam(members.get(0).getTeam().getId());
+        Map<Long, List<Member>> membersByTeam = loader.loadMembersOf(teams.values());
+        for (Member member : members) {
+            member.getTeam().getName();
+        }
+
+        //then
+        assertThat(statementCounter.current() - before).isEqualTo(2);
+        assertThat(teams).hasSize(100);
+        assertThat(membersByTeam.values()).allSatisfy(list -> assertThat(list).hasSize(1));
+    }
+
+    private List<Member> findBatchMembers() {
+        List<Member> members = em.createQuery("select m from Member m where m.username like 'batchMember%'", Member.class)
+                .getResultList();
+        assertThat(members).hasSize(100);
+        return members;
+    }
+}
@@ -1,11 +1,17 @@
 package study.datajpa.repository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Item;
 
-import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class ItemRepositoryTest {
@@ -13,9 +19,47 @@ class ItemRepositoryTest {
     @Autowired
     ItemRepository itemRepository;
 
+    @PersistenceContext
+    EntityManager em;
+
     @Test
     public void 아이템_테스트(){
         Item item = new Item("A");
         itemRepository.save(item);
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional
+    public void 아이템_isNew(){
+        //given
+        Item item = new Item("isNew");
+        assertThat(item.isNew()).isTrue();
+
+        //when
+        itemRepository.saveAndFlush(item);
+        em.clear();
+
+        //then
+        assertThat(item.isNew()).isFalse();
+        assertThat(itemRepository.findById("isNew").get().isNew()).isFalse();
+    }
+
+    @Test
+    @Transactional
+    public void 아이템_upsert(){
+        //given
+        itemRepository.saveAndFlush(new Item("upsert1"));
+        em.clear();
+        LocalDateTime createDate = itemRepository.findById("upsert1").get().getCreateDate();
+        em.clear();
+
+        //when
+        int count = itemRepository.upsertAll(List.of(new Item("upsert1"), new Item("upsert2"), new Item("upsert3")));
+
+        //then 이미 있던 상품은 생성일이 바뀌지 않고 추가된 수에도 들어가지 않는다.
+        assertThat(count).isEqualTo(2);
+        assertThat(itemRepository.findAllById(List.of("upsert1", "upsert2", "upsert3"))).hasSize(3);
+        assertThat(itemRepository.findById("upsert1").get().getCreateDate()).isEqualTo(createDate);
+        assertThat(itemRepository.findById("upsert2").get().getCreateDate()).isNotNull();
+    }
+}
@@ -0,0 +1,126 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 청크마다 커밋되므로 테스트 트랜잭션을 사용하지 않는다. 커밋된 데이터가 남으므로 별도 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulktest")
+class MemberBulkUpdaterTest {
+
+    @Autowired
+    MemberBulkUpdater memberBulkUpdater;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("실패한 청크 다음부터 재개한다")
+    public void resumeAfterFailure(){
+        //given 나이 10~34 회원 25명, 20살 이상은 15명
+        memberJpaRepository.saveAllInBatch(IntStream.range(10, 35)
+                .mapToObj(age -> new Member("bulk" + age, age))
+                .toList());
+        List<BulkUpdateProgress> progresses = new ArrayList<>();
+
+        //when 두번째 청크 커밋 후 실패
+        assertThatThrownBy(() -> memberBulkUpdater.agePlus("agePlus-resume", 20, 5, progress -> {
+            progresses.add(progress);
+            if (progress.chunks() == 2) {
+                throw new IllegalStateException("fail");
+            }
+        })).isInstanceOf(IllegalStateException.class);
+        BulkUpdateProgress result = memberBulkUpdater.agePlus("agePlus-resume", 20, 5, progresses::add);
+
+        //then
+        assertThat(progresses).extracting(BulkUpdateProgress::processed).containsExactly(5L, 10L, 15L);
+        assertThat(result.completed()).isTrue();
+        assertThat(result.processed()).isEqualTo(15);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from member where username like 'bulk%' and age = cast(substring(username, 5) as int) + 1",
+                Integer.class)).isEqualTo(15);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from member where username like 'bulk%' and age < 20", Integer.class)).isEqualTo(10);
+
+        //완료된 작업은 다시 실행하지 않는다.
+        assertThat(memberBulkUpdater.agePlus("agePlus-resume", 20, 5, progresses::add).processed()).isEqualTo(15);
+        assertThat(progresses).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("체크포인트 다음 회원부터 갱신하고 version 을 올린다")
+    public void updateFromCheckpoint(){
+        //given 나이 -2000~-1991 회원 10명, 네번째 회원까지 처리된 체크포인트 (다른 테스트의 조건과 겹치지 않는 나이)
+        memberJpaRepository.saveAllInBatch(IntStream.range(0, 10)
+                .mapToObj(i -> new Member("chunk" + i, -2000 + i))
+                .toList());
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select member_id from member where username like 'chunk%' order by member_id", Long.class);
+        jdbcTemplate.update("insert into bulk_job_checkpoint (job_name, last_id, processed, chunks, completed) values (?, ?, 4, 1, false)",
+                "agePlus-checkpoint", ids.get(3));
+
+        //when
+        BulkUpdateProgress result = memberBulkUpdater.agePlus("agePlus-checkpoint", -2000, 3, BulkUpdateListener.NONE);
+
+        //then
+        assertThat(result.completed()).isTrue();
+        assertThat(result.processed()).isEqualTo(10);
+        assertThat(result.chunks()).isEqualTo(3);
+        assertThat(result.lastId()).isEqualTo(ids.get(9));
+        assertThat(jdbcTemplate.queryForList(
+                "select age + 2000 - cast(substring(username, 6) as int) from member where username like 'chunk%' order by member_id",
+                Integer.class)).containsExactly(0, 0, 0, 0, 1, 1, 1, 1, 1, 1);
+        assertThat(jdbcTemplate.queryForList(
+                "select version from member where username like 'chunk%' order by member_id",
+                Long.class)).containsExactly(0L, 0L, 0L, 0L, 1L, 1L, 1L, 1L, 1L, 1L);
+    }
+
+    @Test
+    @DisplayName("같은 작업을 동시에 실행해도 회원마다 한 번만 갱신한다")
+    public void concurrentRuns() throws Exception {
+        //given 나이 -1000~-981 회원 20명
+        memberJpaRepository.saveAllInBatch(IntStream.range(0, 20)
+                .mapToObj(i -> new Member("parallel" + i, -1000 + i))
+                .toList());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        //when
+        List<Future<BulkUpdateProgress>> results = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return memberBulkUpdater.agePlus("agePlus-parallel", -1000, 2, BulkUpdateListener.NONE);
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+
+        //then
+        for (Future<BulkUpdateProgress> result : results) {
+            assertThat(result.get(30, TimeUnit.SECONDS).processed()).isEqualTo(20);
+        }
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from member where username like 'parallel%' and version = 1 and age = -999 + cast(substring(username, 9) as int)",
+                Integer.class)).isEqualTo(20);
+    }
+}
+
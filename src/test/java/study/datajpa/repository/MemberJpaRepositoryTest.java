@@ -9,8 +9,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
 
 import java.awt.event.ItemEvent;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,6 +25,9 @@ class MemberJpaRepositoryTest {
     @Autowired
     private MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    private TeamJpaRepository teamJpaRepository;
+
     @PersistenceContext
     private EntityManager em;
 
@@ -117,6 +122,32 @@ class MemberJpaRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("batch insert")
+    public void saveAllInBatch(){
+        //given
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            teams.add(new Team("batchTeam" + i));
+        }
+        teamJpaRepository.saveAllInBatch(teams);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            members.add(new Member("batch" + i, i, teams.get(i % teams.size())));
+        }
+        long before = memberJpaRepository.count();
+
+        //when
+        int saved = memberJpaRepository.saveAllInBatch(members);
+
+        //then
+        assertThat(saved).isEqualTo(250);
+        assertThat(memberJpaRepository.count()).isEqualTo(before + 250);
+        assertThat(em.contains(members.get(0))).isFalse();
+        assertThat(memberJpaRepository.find(members.get(249).getId()).getTeam().getName()).isEqualTo("batchTeam0");
+    }
+
     @Test
     @DisplayName("bulk")
     @Rollback(value = false)
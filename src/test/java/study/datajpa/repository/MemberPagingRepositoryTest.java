@@ -0,0 +1,65 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberPagingRepositoryTest {
+
+    @Autowired
+    MemberPagingRepository memberPagingRepository;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    @DisplayName("count mode")
+    public void countMode(){
+        //given
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("paging" + i, 33));
+        }
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by("username"));
+
+        //when
+        Slice<Member> exact = memberPagingRepository.findByAge(33, pageRequest, CountMode.EXACT);
+        Slice<Member> cached = memberPagingRepository.findByAge(33, pageRequest, CountMode.CACHED);
+        Slice<Member> none = memberPagingRepository.findByAge(33, pageRequest, CountMode.NONE);
+
+        //then
+        assertThat(((Page<Member>) exact).getTotalElements()).isEqualTo(5);
+        assertThat(((Page<Member>) cached).getTotalElements()).isEqualTo(5);
+        assertThat(cached.getContent()).extracting("username").containsExactly("paging0", "paging1");
+        assertThat(none).isNotInstanceOf(Page.class);
+        assertThat(none.getContent()).hasSize(2);
+        assertThat(none.hasNext()).isTrue();
+
+        //엔티티를 거치지 않은 변경은 TTL 동안 반영되지 않는다.
+        em.createNativeQuery("insert into member (member_id, username, age, version) values (1, 'paging5', 33, 0)")
+                .executeUpdate();
+        assertThat(((Page<Member>) memberPagingRepository.findByAge(33, pageRequest, CountMode.CACHED)).getTotalElements()).isEqualTo(5);
+        assertThat(((Page<Member>) memberPagingRepository.findByAge(33, pageRequest, CountMode.EXACT)).getTotalElements()).isEqualTo(6);
+
+        //엔티티 저장은 캐시를 무효화한다.
+        memberRepository.save(new Member("paging6", 33));
+        em.flush();
+        assertThat(((Page<Member>) memberPagingRepository.findByAge(33, pageRequest, CountMode.CACHED)).getTotalElements()).isEqualTo(7);
+    }
+}
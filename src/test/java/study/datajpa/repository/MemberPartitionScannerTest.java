@@ -0,0 +1,107 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * 파티션은 각자의 EntityManager 로 읽으므로 데이터를 커밋해야 한다. 커밋된 데이터가 남으므로 별도 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:scantest")
+class MemberPartitionScannerTest {
+
+    @Autowired
+    MemberPartitionScanner memberPartitionScanner;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("파티션 수와 관계없이 같은 집계 결과를 낸다")
+    public void scan(){
+        //given
+        memberJpaRepository.saveAllInBatch(IntStream.range(0, 103)
+                .mapToObj(i -> new Member("scan" + i, i % 10))
+                .toList());
+
+        //when
+        Map<Integer, Long> single = countByAge(1);
+        Map<Integer, Long> partitioned = countByAge(8);
+
+        //then
+        assertThat(single.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(103);
+        assertThat(single.get(0)).isEqualTo(11);
+        assertThat(partitioned).isEqualTo(single);
+    }
+
+    @Test
+    @DisplayName("한 파티션이 실패하면 다른 파티션을 기다리지 않고 실패한다")
+    public void failFast(){
+        //given 가장 작은 id 의 회원(fail)은 첫 파티션에서 바로 실패하고, 나머지 회원은 풀려날 때까지 멈춘다.
+        jdbcTemplate.update("insert into member (member_id, username, age, version) values (-1000000, 'fail', 0, 0)");
+        jdbcTemplate.update("insert into member (member_id, username, age, version) values (1000000, 'block', 0, 0)");
+        CountDownLatch blocker = new CountDownLatch(1);
+
+        try {
+            //when //then
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                    assertThatThrownBy(() -> memberPartitionScanner.scan(2,
+                            () -> 0,
+                            (count, member) -> {
+                                if (member.getUsername().equals("fail")) {
+                                    throw new IllegalStateException("fail");
+                                }
+                                try {
+                                    blocker.await(60, TimeUnit.SECONDS);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                                return count + 1;
+                            },
+                            Integer::sum))
+                            .isInstanceOf(IllegalStateException.class)
+                            .hasMessage("fail"));
+        } finally {
+            blocker.countDown();
+            jdbcTemplate.update("delete from member where member_id in (-1000000, 1000000)");
+        }
+    }
+
+    @Test
+    public void split(){
+        List<long[]> bounds = MemberPartitionScanner.split(1, 10, 3);
+
+        assertThat(bounds).extracting(bound -> bound[0]).containsExactly(1L, 5L, 8L);
+        assertThat(bounds).extracting(bound -> bound[1]).containsExactly(5L, 8L, 11L);
+        assertThat(MemberPartitionScanner.split(1, 2, 16)).hasSize(2);
+    }
+
+    private Map<Integer, Long> countByAge(int partitions) {
+        return memberPartitionScanner.scan(partitions,
+                HashMap::new,
+                (counts, member) -> {
+                    counts.merge(member.getAge(), 1L, Long::sum);
+                    return counts;
+                },
+                (left, right) -> {
+                    right.forEach((age, count) -> left.merge(age, count, Long::sum));
+                    return left;
+                });
+    }
+}
@@ -2,6 +2,7 @@ package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +18,7 @@ import study.datajpa.entity.Team;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -28,6 +30,8 @@ class MemberRepositoryTest {
     MemberRepository memberRepository;
     @Autowired
     TeamRepository teamRepository;
+    @Autowired
+    CompiledSpecificationCache compiledSpecificationCache;
 
     @PersistenceContext
     EntityManager em;
@@ -162,6 +166,28 @@ class MemberRepositoryTest {
         //then
     }
 
+    @Test
+    @DisplayName("큰 IN 절은 조각으로 나눠 조회하고 합친다")
+    public void findBynNamesChunked(){
+        //given
+        memberRepository.save(new Member("inChunkA", 10));
+        memberRepository.save(new Member("inChunkB", 20));
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            names.add("none" + i);
+        }
+        names.add("inChunkA");
+        names.add("inChunkB");
+        names.add("inChunkA");
+
+        //when
+        List<Member> members = memberRepository.findBynNames(names);
+
+        //then
+        assertThat(members).extracting("username").containsExactlyInAnyOrder("inChunkA", "inChunkB");
+        assertThat(memberRepository.findBynNames(List.of())).isEmpty();
+    }
+
     @Test
     public void returnType(){
         //given
@@ -225,6 +251,92 @@ class MemberRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("keyset paging")
+    public void keysetPaging(){
+        //given
+        memberRepository.save(new Member("keyset3", 77));
+        memberRepository.save(new Member("keyset1", 77));
+        memberRepository.save(new Member("keyset2", 78));
+        memberRepository.save(new Member("keyset1", 77));
+        memberRepository.save(new Member("keyset5", 77));
+
+        em.flush();
+        em.clear();
+
+        //when
+        KeysetSlice<Member> first = memberRepository.findByAgeKeyset(77, null, 2);
+        KeysetSlice<Member> second = memberRepository.findByAgeKeyset(77, MemberCursor.decode(first.nextCursor()), 2);
+
+        //then
+        assertThat(first.content()).extracting("username").containsExactly("keyset1", "keyset1");
+        assertThat(first.content().get(0).getId()).isLessThan(first.content().get(1).getId());
+        assertThat(first.hasNext()).isTrue();
+
+        assertThat(second.content()).extracting("username").containsExactly("keyset3", "keyset5");
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+
+        //전체 조회는 중복, 누락 없이 끝까지 순회되어야 한다.
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetSlice<Member> slice = memberRepository.findAllByKeyset(MemberCursor.decode(cursor), 2);
+            slice.content().forEach(m -> ids.add(m.getId()));
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(ids).hasSize(memberRepository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("keyset paging - username 이 null 인 회원")
+    public void keysetPagingNullUsername(){
+        //given
+        Member b = memberRepository.save(new Member("keysetB", 79));
+        Member null1 = memberRepository.save(new Member(null, 79));
+        Member a = memberRepository.save(new Member("keysetA", 79));
+        Member null2 = memberRepository.save(new Member(null, 79));
+
+        em.flush();
+        em.clear();
+
+        //when 한 건씩 끝까지 넘긴다.
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetSlice<Member> slice = memberRepository.findByAgeKeyset(79, MemberCursor.decode(cursor), 1);
+            slice.content().forEach(m -> ids.add(m.getId()));
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+
+        //then null 이 먼저, 같은 username 은 id 순서
+        assertThat(ids).containsExactly(null1.getId(), null2.getId(), a.getId(), b.getId());
+    }
+
+    @Test
+    @DisplayName("stream")
+    public void streamMemberDto(){
+        //given
+        Team teamA = teamRepository.save(new Team("teamA"));
+        memberRepository.save(new Member("stream1", 10, teamA));
+        memberRepository.save(new Member("stream2", 10));
+
+        em.flush();
+        em.clear();
+
+        //when
+        List<MemberDto> result;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto()) {
+            result = stream.filter(dto -> dto.getUsername().startsWith("stream"))
+                    .toList();
+        }
+
+        //then
+        assertThat(result).extracting("username").containsExactly("stream1", "stream2");
+        assertThat(result).extracting("teamName").containsExactly("teamA", null);
+    }
+
     @Test
     @DisplayName("bulk")
     @Rollback(value = false)
@@ -344,6 +456,61 @@ class MemberRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("같은 구조의 spec 은 JPQL 을 재사용한다")
+    public void compiledSpec(){
+        //given
+        Team teamA = teamRepository.save(new Team("specTeamA"));
+        Team teamB = teamRepository.save(new Team("specTeamB"));
+        memberRepository.save(new Member("spec1", 10, teamA));
+        memberRepository.save(new Member("spec2", 10, teamB));
+        em.flush();
+        em.clear();
+
+        //when 첫 조회가 캐시에 있었는지는 앞선 테스트에 따라 다르므로 두 번째 조회의 변화만 본다.
+        List<Member> first = memberRepository.findAllCompiled(MemberSpec.age(10).andCompilable(MemberSpec.teamName("specTeamA")));
+        long hits = compiledSpecificationCache.hitCount();
+        long misses = compiledSpecificationCache.missCount();
+        List<Member> second = memberRepository.findAllCompiled(MemberSpec.age(10).andCompilable(MemberSpec.teamName("specTeamB")));
+        long secondHits = compiledSpecificationCache.hitCount() - hits;
+        long secondMisses = compiledSpecificationCache.missCount() - misses;
+        List<Member> noTeam = memberRepository.findAllCompiled(MemberSpec.username("spec1").andCompilable(MemberSpec.teamName("")));
+
+        //then
+        assertThat(first).extracting("username").containsExactly("spec1");
+        assertThat(second).extracting("username").containsExactly("spec2");
+        assertThat(noTeam).extracting("username").containsExactly("spec1");
+        assertThat(secondHits).isEqualTo(1);
+        assertThat(secondMisses).isZero();
+        assertThat(compiledSpecificationCache.jpql("select m from Member m", "m", MemberSpec.age(10).andCompilable(MemberSpec.teamName("specTeamA"))))
+                .isSameAs(compiledSpecificationCache.jpql("select m from Member m", "m", MemberSpec.age(20).andCompilable(MemberSpec.teamName("specTeamB"))));
+        //빈 조건은 결합에서 빠진다.
+        assertThat(MemberSpec.username("spec1").andCompilable(MemberSpec.teamName("")).key()).isEqualTo("username=?");
+        assertThat(memberRepository.findAll(MemberSpec.age(10).and(MemberSpec.teamName("specTeamA"))))
+                .extracting("username").containsExactly("spec1");
+    }
+
+    @Test
+    @DisplayName("값이 null 인 spec 은 is null 로 조회한다")
+    public void compiledSpecNull(){
+        //given
+        memberRepository.save(new Member(null, 77));
+        memberRepository.save(new Member("specNull", 77));
+        em.flush();
+        em.clear();
+
+        //when
+        CompilableSpecification<Member> spec = MemberSpec.age(77).andCompilable(MemberSpec.username(null));
+        List<Member> compiled = memberRepository.findAllCompiled(spec);
+        List<Member> criteria = memberRepository.findAll((Specification<Member>) spec);
+
+        //then 값이 있는 조건과 구조(key)가 다르다.
+        assertThat(compiled).extracting("username").containsExactly((String) null);
+        assertThat(criteria).extracting("username").containsExactly((String) null);
+        assertThat(spec.key()).isEqualTo("(age=? and username is null)");
+        assertThat(spec.key()).isNotEqualTo(MemberSpec.age(77).andCompilable(MemberSpec.username("specNull")).key());
+    }
+
     @Test
     @DisplayName("query by example")
     public void query_by_example(){
@@ -399,6 +566,32 @@ class MemberRepositoryTest {
         }
 
     }
+    @Test
+    @DisplayName("narrow projection")
+    public void narrowProjection(){
+        //given
+        Team teamA = teamRepository.save(new Team("teamA"));
+
+        memberRepository.save(new Member("narrow1", 10, teamA));
+        memberRepository.save(new Member("narrow2", 10));
+
+        em.flush();
+        em.clear();
+
+        //when
+        List<UsernameOnlyDto> records = memberRepository.findNarrowProjectionsByUsername("narrow1", UsernameOnlyDto.class);
+        List<NestedClosedProjections> nested = memberRepository.findNarrowProjectionsByUsername("narrow1", NestedClosedProjections.class);
+        List<NestedClosedProjections> withoutTeam = memberRepository.findNarrowProjectionsByUsername("narrow2", NestedClosedProjections.class);
+
+        //then
+        assertThat(records).extracting("username").containsExactly("narrow1");
+        assertThat(nested.get(0).getUsername()).isEqualTo("narrow1");
+        assertThat(nested.get(0).getTeam().getName()).isEqualTo("teamA");
+        assertThat(withoutTeam.get(0).getTeam()).isNull();
+        //엔티티를 조회하지 않으므로 영속성 컨텍스트가 비어있다.
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
     @Test
     @DisplayName("nativeQuery")
     public void nativeQuery() {
@@ -419,4 +612,26 @@ class MemberRepositoryTest {
         System.out.println("byNativeProjectionsQuery ="+ content.get(0).getUsername());
         System.out.println("byNativeProjectionsQuery ="+ content.get(0).getTeamName());
     }
+
+    @Test
+    @DisplayName("native slice 는 회원마다 한 행이다 (팀과 조인 조건)")
+    public void nativeSliceJoin(){
+        //given
+        Team teamA = teamRepository.save(new Team("sliceTeamA"));
+        teamRepository.save(new Team("sliceTeamB"));
+        memberRepository.save(new Member("slice1", 10, teamA));
+        memberRepository.save(new Member("slice2", 10));
+        em.flush();
+        em.clear();
+
+        //when
+        Slice<MemberProjection> slice = memberRepository.findSliceByNativeProjectionsQuery(PageRequest.of(0, 2000));
+
+        //then
+        assertThat(slice.getContent()).hasSize((int) memberRepository.count());
+        assertThat(slice.getContent()).filteredOn(p -> "slice1".equals(p.getUsername()))
+                .extracting(MemberProjection::getTeamName).containsExactly("sliceTeamA");
+        assertThat(slice.getContent()).filteredOn(p -> "slice2".equals(p.getUsername()))
+                .extracting(MemberProjection::getTeamName).containsOnlyNulls();
+    }
 }
@@ -0,0 +1,107 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 작업자마다 별도 트랜잭션이 커밋해야 하므로 테스트 트랜잭션을 사용하지 않는다. 커밋된 데이터가 남으므로 별도 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:workqueuetest")
+class MemberWorkQueueTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    TransactionTemplate tx;
+
+    @Test
+    @DisplayName("작업자들은 서로의 행을 기다리지 않고 건너뛰며, 모든 행은 한 번씩만 처리된다")
+    public void claimBatch() throws Exception {
+        //given
+        memberJpaRepository.saveAllInBatch(IntStream.range(0, 40)
+                .mapToObj(i -> new Member("queue" + i, 50))
+                .toList());
+        Specification<Member> pending = (root, query, builder) -> builder.equal(root.get("age"), 50);
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            //when 첫 작업자는 잠근 행을 release 될 때까지 커밋하지 않는다.
+            Future<List<Long>> first = executor.submit(() -> tx.execute(status -> {
+                List<Long> ids = claim(pending, 3);
+                firstClaimed.countDown();
+                await(release);
+                return ids;
+            }));
+            await(firstClaimed);
+            Future<List<Long>> second = executor.submit(() -> tx.execute(status -> claim(pending, 3)));
+
+            //then 두 번째 작업자는 첫 작업자가 커밋하기 전에 다른 행을 가져간다.
+            List<Long> secondIds = second.get(10, TimeUnit.SECONDS);
+            assertThat(first).isNotDone();
+            release.countDown();
+            List<Long> firstIds = first.get(10, TimeUnit.SECONDS);
+            assertThat(firstIds).hasSize(3);
+            assertThat(secondIds).hasSize(3).doesNotContainAnyElementsOf(firstIds);
+
+            //남은 행까지 처리하면 모든 행이 한 번씩만 처리된다.
+            List<Long> claimed = new ArrayList<>(firstIds);
+            claimed.addAll(secondIds);
+            List<Long> batch;
+            while (!(batch = tx.execute(status -> claim(pending, 7))).isEmpty()) {
+                claimed.addAll(batch);
+            }
+            assertThat(claimed).hasSize(40).doesNotHaveDuplicates();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("트랜잭션 밖에서는 락이 바로 풀리므로 호출할 수 없다")
+    public void claimBatchWithoutTransaction(){
+        assertThatThrownBy(() -> memberRepository.claimBatch((root, query, builder) -> null, 1))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    /**
+     * 잠근 행을 처리한 것으로 표시한다. (커밋되면 pending 조건에서 빠진다)
+     */
+    private List<Long> claim(Specification<Member> pending, int batchSize) {
+        List<Member> batch = memberRepository.claimBatch(pending, batchSize);
+        batch.forEach(member -> member.setAge(51));
+        return batch.stream().map(Member::getId).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("latch timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * flush 가 별도 트랜잭션으로 커밋되므로 테스트 트랜잭션을 사용하지 않는다. 자동 flush 가 끼어들지 않도록 주기를 길게 둔다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehindtest",
+        "datajpa.write-behind.enabled=true",
+        "datajpa.write-behind.flush-interval=1h"})
+class MemberWriteBehindBufferTest {
+
+    @Autowired
+    MemberWriteBehindBuffer buffer;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    AuditorAware<String> auditorAware;
+
+    @Test
+    @DisplayName("같은 회원의 변경은 합쳐서 한 번의 UPDATE 로 반영한다")
+    public void coalesce(){
+        //given
+        Member member = memberRepository.save(new Member("writeBehind", 10));
+        long coalesced = buffer.coalescedCount();
+
+        //when
+        buffer.changeAge(member.getId(), 11);
+        buffer.changeAge(member.getId(), 12);
+        buffer.changeUsername(member.getId(), "writeBehind2");
+        buffer.changeAge(member.getId(), 13);
+        int flushed = buffer.flush();
+
+        //then
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select username, age, version, last_modified_date from member where member_id = ?", member.getId());
+        assertThat(flushed).isEqualTo(1);
+        assertThat(buffer.coalescedCount()).isEqualTo(coalesced + 3);
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(row.get("USERNAME")).isEqualTo("writeBehind2");
+        assertThat(row.get("AGE")).isEqualTo(13);
+        assertThat(((Number) row.get("VERSION")).longValue()).isEqualTo(member.getVersion() + 1);
+        assertThat(row.get("LAST_MODIFIED_DATE")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("username 을 null 로 바꾸는 변경은 받지 않는다")
+    public void nullUsername(){
+        //given
+        Member member = memberRepository.save(new Member("nullUsername", 20));
+        long pending = buffer.pendingCount();
+
+        //when then 합칠 때 null 은 "바꾸지 않음" 이라 조용히 버려지므로 바로 거부한다.
+        assertThatThrownBy(() -> buffer.changeUsername(member.getId(), null))
+                .isInstanceOf(NullPointerException.class);
+        assertThat(buffer.pendingCount()).isEqualTo(pending);
+    }
+
+    @Test
+    @DisplayName("변경하지 않은 속성은 그대로 둔다")
+    public void partial(){
+        //given
+        Member member = memberRepository.save(new Member("partial", 20));
+
+        //when
+        buffer.changeAge(member.getId(), 21);
+        buffer.flush();
+
+        //then
+        Member found = memberRepository.findById(member.getId()).get();
+        assertThat(found.getUsername()).isEqualTo("partial");
+        assertThat(found.getAge()).isEqualTo(21);
+    }
+
+    @Test
+    @DisplayName("flush 가 실패하면 변경을 다시 대기열에 넣고, 이후 들어온 값과 합쳐 다시 반영한다")
+    public void retryAfterFailure(){
+        //given
+        Member member = memberRepository.save(new Member("retry", 30));
+        buffer.changeAge(member.getId(), 31);
+        buffer.changeUsername(member.getId(), "x".repeat(300)); //컬럼 길이 초과
+
+        //when
+        assertThatThrownBy(() -> buffer.flush()).isInstanceOf(DataAccessException.class);
+        int pendingAfterFailure = buffer.pendingCount();
+        buffer.changeUsername(member.getId(), "retry2");
+        int flushed = buffer.flush();
+
+        //then
+        assertThat(pendingAfterFailure).isEqualTo(1);
+        assertThat(flushed).isEqualTo(1);
+        Member found = memberRepository.findById(member.getId()).get();
+        assertThat(found.getUsername()).isEqualTo("retry2");
+        assertThat(found.getAge()).isEqualTo(31);
+    }
+
+    @Test
+    @DisplayName("감사자는 변경을 요청한 트랜잭션의 감사자로 기록한다")
+    public void auditorOfCaller(){
+        //given
+        Member member = memberRepository.save(new Member("auditor", 40));
+
+        //when
+        String auditor = new TransactionTemplate(transactionManager).execute(status -> {
+            buffer.changeAge(member.getId(), 41);
+            return auditorAware.getCurrentAuditor().orElseThrow();
+        });
+        buffer.flush();
+
+        //then
+        assertThat(jdbcTemplate.queryForObject("select last_modified_by from member where member_id = ?",
+                String.class, member.getId())).isEqualTo(auditor);
+    }
+
+    @Test
+    @DisplayName("컨텍스트가 종료될 때 남은 변경을 반영한다")
+    public void flushOnShutdown() throws Exception {
+        //given
+        String url = "jdbc:h2:mem:writebehindshutdown;DB_CLOSE_DELAY=-1";
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=" + url,
+                        "datajpa.write-behind.enabled=true",
+                        "datajpa.write-behind.flush-interval=1h")
+                .run();
+        Member member = context.getBean(MemberRepository.class).save(new Member("shutdown", 50));
+        MemberWriteBehindBuffer shutdownBuffer = context.getBean(MemberWriteBehindBuffer.class);
+        shutdownBuffer.changeAge(member.getId(), 51);
+        assertThat(shutdownBuffer.pendingCount()).isEqualTo(1);
+
+        //when
+        context.close();
+
+        //then
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement ps = connection.prepareStatement("select age from member where member_id = ?")) {
+            ps.setLong(1, member.getId());
+            try (ResultSet rs = ps.executeQuery()) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getInt(1)).isEqualTo(51);
+            }
+            connection.createStatement().execute("shutdown");
+        }
+    }
+}
+
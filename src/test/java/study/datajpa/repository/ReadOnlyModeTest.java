@@ -0,0 +1,54 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋 결과를 확인해야 하므로 테스트 트랜잭션을 사용하지 않는다. 커밋된 데이터가 남으므로 별도 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:readonlytest")
+class ReadOnlyModeTest {
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TransactionTemplate tx;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    @DisplayName("읽기 전용 트랜잭션은 변경감지/flush 를 하지 않는다")
+    public void readOnlyTransaction(){
+        //given
+        Member member = memberJpaRepository.save(new Member("readOnly", 10)); //save 는 쓰기 트랜잭션
+        TransactionTemplate readOnlyTx = new TransactionTemplate(tx.getTransactionManager());
+        readOnlyTx.setReadOnly(true);
+
+        //when
+        readOnlyTx.executeWithoutResult(status -> {
+            Session session = em.unwrap(Session.class);
+            assertThat(session.isDefaultReadOnly()).isTrue();
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+
+            Member findMember = memberJpaRepository.find(member.getId());
+            assertThat(session.isReadOnly(findMember)).isTrue();
+            findMember.setUsername("changed");
+        });
+
+        //then
+        assertThat(memberRepository.findById(member.getId()).get().getUsername()).isEqualTo("readOnly");
+    }
+}
@@ -0,0 +1,101 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "datajpa.metrics.statements.enabled=true")
+@Transactional
+class RepositoryMetricsTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    @DisplayName("리포지토리 메서드별 metric")
+    public void repositoryMetrics(){
+        //given
+        memberRepository.save(new Member("metrics", 10));
+        memberRepository.save(new Member("metrics", 20));
+        memberRepository.save(new Member("metrics", 30));
+        em.flush();
+        em.clear();
+        String method = "findByUsernameAndAgeGreaterThan";
+        double invocations = total("datajpa.repository.invocation", method);
+        double rows = total("datajpa.repository.rows", method);
+        double statements = total("datajpa.repository.statements", method);
+        double entities = total("datajpa.repository.entities", method);
+
+        //when
+        memberRepository.findByUsernameAndAgeGreaterThan("metrics", 0);
+        memberRepository.findByUsernameAndAgeGreaterThan("metrics", 15); //이미 영속 상태 -> hydrate 없음
+
+        //then
+        assertThat(meterRegistry.get("datajpa.repository.invocation")
+                .tags("repository", "MemberRepository", "method", method,
+                        "signature", method + "(String,int)", "outcome", "success")
+                .timer().count()).isEqualTo((long) invocations + 2);
+        assertThat(total("datajpa.repository.rows", method)).isEqualTo(rows + 3 + 2);
+        assertThat(total("datajpa.repository.statements", method)).isEqualTo(statements + 2);
+        assertThat(total("datajpa.repository.entities", method)).isEqualTo(entities + 3);
+    }
+
+    @Test
+    @DisplayName("실패한 호출도 outcome=error 로 기록한다")
+    public void failedInvocation(){
+        //given
+        long before = meterRegistry.find("datajpa.repository.invocation")
+                .tags("method", "findById", "outcome", "error").timers().stream()
+                .mapToLong(Timer::count).sum();
+
+        //when
+        assertThatThrownBy(() -> memberRepository.findById(null)).isInstanceOf(RuntimeException.class);
+
+        //then
+        assertThat(meterRegistry.find("datajpa.repository.invocation")
+                .tags("method", "findById", "outcome", "error").timers().stream()
+                .mapToLong(Timer::count).sum()).isEqualTo(before + 1);
+    }
+
+    @Test
+    @DisplayName("오버로드된 메서드는 signature 태그로 구분한다")
+    public void overloads(){
+        //when
+        memberRepository.findAll(PageRequest.of(0, 1));
+        memberRepository.findAll(Sort.by("username"));
+
+        //then
+        assertThat(meterRegistry.get("datajpa.repository.invocation")
+                .tags("method", "findAll", "signature", "findAll(Pageable)").timer().count()).isPositive();
+        assertThat(meterRegistry.get("datajpa.repository.invocation")
+                .tags("method", "findAll", "signature", "findAll(Sort)").timer().count()).isPositive();
+    }
+
+    /**
+     * 결과(outcome)와 관계없이 메서드의 누적 합계. 다른 테스트와 컨텍스트를 공유하므로 전후 차이로 검증한다.
+     */
+    private double total(String metric, String method) {
+        return meterRegistry.find(metric).tags("method", method).meters().stream()
+                .mapToDouble(meter -> meter instanceof Timer timer ? timer.count()
+                        : ((DistributionSummary) meter).totalAmount())
+                .sum();
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 캐시는 커밋 이후에 채워지므로 트랜잭션을 직접 나눈다. 커밋된 데이터가 남으므로 별도 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cachetest")
+@ActiveProfiles("cache")
+class SecondLevelCacheTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate tx;
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    @DisplayName("쿼리 캐시와 bulk 연산 후 region 무효화")
+    public void queryCacheAndBulkEviction(){
+        //given
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        tx.executeWithoutResult(status -> {
+            Team team = teamRepository.save(new Team("cacheTeam"));
+            memberRepository.save(new Member("cacheMember", 10, team));
+        });
+        statistics.clear();
+
+        //when
+        tx.executeWithoutResult(status -> memberRepository.findByUsername("cacheMember"));
+        tx.executeWithoutResult(status -> memberRepository.findByUsername("cacheMember").getTeam().getName());
+
+        //then
+        assertThat(statistics.getQueryRegionStatistics("member.byUsername").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("member").getHitCount()).isGreaterThanOrEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("team").getHitCount()).isEqualTo(1);
+
+        //when - bulk 연산은 member 관련 region 만 무효화한다.
+        tx.executeWithoutResult(status -> memberRepository.bulkAgePlus(0));
+        long queryMisses = statistics.getQueryRegionStatistics("member.byUsername").getMissCount();
+        Member member = tx.execute(status -> {
+            Member findMember = memberRepository.findByUsername("cacheMember");
+            findMember.getTeam().getName();
+            return findMember;
+        });
+
+        //then
+        assertThat(member.getAge()).isEqualTo(11);
+        assertThat(statistics.getQueryRegionStatistics("member.byUsername").getMissCount()).isEqualTo(queryMisses + 1);
+        assertThat(statistics.getDomainDataRegionStatistics("team").getHitCount()).isEqualTo(2);
+    }
+}
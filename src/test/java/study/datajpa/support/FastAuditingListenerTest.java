@@ -0,0 +1,55 @@
+package study.datajpa.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "datajpa.auditing.mode=fast")
+@Transactional
+class FastAuditingListenerTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    @DisplayName("한 flush 의 엔티티들은 같은 시각, 한 트랜잭션의 엔티티들은 같은 감사자를 가진다")
+    public void audit() throws InterruptedException {
+        //given
+        Team team = new Team("auditTeam");
+        Member member1 = new Member("audit1", 10, team);
+        Member member2 = new Member("audit2", 20, team);
+        em.persist(team);
+        em.persist(member1);
+        em.persist(member2);
+
+        //when
+        em.flush();
+
+        //then
+        assertThat(member1.getCreateDate()).isNotNull();
+        assertThat(member1.getCreateDate()).isEqualTo(member2.getCreateDate()).isEqualTo(team.getCreateDate());
+        assertThat(member1.getLastModifiedDate()).isEqualTo(member1.getCreateDate());
+        assertThat(member1.getCreatedBy()).isNotNull().isEqualTo(member2.getCreatedBy());
+        assertThat(UUID.fromString(member1.getCreatedBy()).version()).isEqualTo(4);
+        assertThat(UUID.fromString(member1.getCreatedBy()).variant()).isEqualTo(2);
+
+        //수정은 다음 flush 의 시각을 사용한다.
+        Thread.sleep(10);
+        member1.setAge(11);
+        em.flush();
+        em.clear();
+
+        Member findMember = em.find(Member.class, member1.getId());
+        assertThat(findMember.getLastModifiedDate()).isAfter(findMember.getCreateDate());
+        assertThat(findMember.getLastModifiedBy()).isEqualTo(member2.getCreatedBy());
+    }
+}
@@ -0,0 +1,65 @@
+package study.datajpa.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "datajpa.admission.enabled=true",
+        "datajpa.admission.max-concurrent=1",
+        "datajpa.admission.timeout=100ms"})
+@AutoConfigureMockMvc
+class JdbcAdmissionTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    JdbcAdmission admission;
+
+    @Test
+    @DisplayName("허가가 없으면 회원 API 는 503, actuator 는 제한하지 않는다")
+    public void onlyDataEndpoints() throws Exception {
+        //given 하나뿐인 허가를 잡고 있다.
+        assertThat(admission.tryAcquire()).isTrue();
+        try {
+            //when //then
+            mockMvc.perform(get("/members"))
+                    .andExpect(status().isServiceUnavailable());
+            mockMvc.perform(get("/actuator/health"))
+                    .andExpect(status().isOk());
+        } finally {
+            admission.release();
+        }
+        mockMvc.perform(get("/members"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("요청 밖의 작업도 허가를 받고, 허가를 가진 스레드는 다시 받지 않는다")
+    public void call() throws Exception {
+        //given 요청 스레드처럼 하나뿐인 허가를 잡고 있다.
+        assertThat(admission.tryAcquire()).isTrue();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            //when
+            Future<Integer> other = executor.submit(() -> admission.call(() -> 1));
+
+            //then
+            assertThat(admission.call(() -> 1)).isEqualTo(1);
+            assertThatThrownBy(other::get).hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            admission.release();
+        }
+    }
+}
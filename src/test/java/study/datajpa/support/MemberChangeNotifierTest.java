@@ -0,0 +1,118 @@
+package study.datajpa.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberChangedEvent;
+import study.datajpa.repository.MemberJpaRepository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋 후 전달을 확인하므로 커밋된 데이터가 남는다. 별도 DB를 사용한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:memberchangetest",
+        "datajpa.member-change.max-ids=3"})
+class MemberChangeNotifierTest {
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    TransactionTemplate tx;
+    @Autowired
+    RecordingListener recorder;
+
+    @Test
+    @DisplayName("대량 저장은 synchronization 하나로 모이고, max-ids 를 넘으면 커밋 후 전체 무효화 한 번이다")
+    public void coalesceBatch() {
+        //given
+        recorder.events.clear();
+        long[] pending = new long[1];
+
+        //when
+        tx.executeWithoutResult(status -> {
+            memberJpaRepository.saveAllInBatch(members("batch", 10));
+            pending[0] = TransactionSynchronizationManager.getSynchronizations().stream()
+                    .filter(synchronization -> synchronization.getClass().getEnclosingClass() == MemberChangeNotifier.class)
+                    .count();
+            recorder.events.clear(); //변경 직후 전달은 여기까지
+        });
+
+        //then
+        assertThat(pending[0]).isEqualTo(1);
+        assertThat(recorder.events).containsExactly(MemberChangedEvent.all());
+    }
+
+    @Test
+    @DisplayName("max-ids 이하면 커밋 후 회원마다 한 번씩 전달한다")
+    public void perMemberAfterCommit() {
+        //given
+        recorder.events.clear();
+
+        //when
+        List<Member> saved = tx.execute(status -> {
+            List<Member> members = members("few", 2);
+            memberJpaRepository.saveAllInBatch(members);
+            memberJpaRepository.find(members.get(0).getId()).setAge(1); //같은 회원을 다시 바꿔도 한 번이다.
+            memberJpaRepository.saveAllInBatch(List.of()); //flush
+            recorder.events.clear();
+            return members;
+        });
+
+        //then
+        assertThat(recorder.events).containsExactly(
+                new MemberChangedEvent(saved.get(0).getId()), new MemberChangedEvent(saved.get(1).getId()));
+    }
+
+    @Test
+    @DisplayName("롤백되면 커밋 후 전달은 없다")
+    public void rollback() {
+        //given
+        recorder.events.clear();
+
+        //when
+        tx.executeWithoutResult(status -> {
+            memberJpaRepository.saveAllInBatch(members("rollback", 2));
+            recorder.events.clear();
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertThat(recorder.events).isEmpty();
+    }
+
+    private static List<Member> members(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Member(prefix + i, 0))
+                .toList();
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements MemberChangeListener {
+
+        final List<MemberChangedEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onMemberChanged(MemberChangedEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 충돌을 만들려면 다른 트랜잭션이 커밋해야 한다. 커밋된 데이터가 남으므로 별도 DB를 사용한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:retrytest",
+        "datajpa.retry.max-attempts=3"})
+class OptimisticRetryExecutorTest {
+
+    @Autowired
+    OptimisticRetryExecutor retryExecutor;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    TransactionTemplate tx;
+
+    @Test
+    @DisplayName("버전 충돌이 나면 새 트랜잭션에서 다시 실행한다")
+    public void retryOnConflict(){
+        //given
+        Long id = memberJpaRepository.save(new Member("retry", 10)).getId();
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when 첫 시도 중에 다른 트랜잭션이 먼저 수정하고 커밋한다.
+        retryExecutor.run(() -> {
+            Member member = memberJpaRepository.find(id);
+            if (attempts.incrementAndGet() == 1) {
+                concurrentAgePlus(id);
+            }
+            member.setAge(member.getAge() + 1);
+        });
+
+        //then
+        Member member = memberJpaRepository.findById(id).get();
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(member.getAge()).isEqualTo(12);
+        assertThat(member.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("최대 시도 횟수를 넘으면 예외를 그대로 던진다")
+    public void giveUp(){
+        //given
+        Long id = memberJpaRepository.save(new Member("retryGiveUp", 10)).getId();
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when then
+        assertThatThrownBy(() -> retryExecutor.run(() -> {
+            attempts.incrementAndGet();
+            Member member = memberJpaRepository.find(id);
+            concurrentAgePlus(id);
+            member.setAge(member.getAge() + 1);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    private void concurrentAgePlus(Long id) {
+        TransactionTemplate other = new TransactionTemplate(tx.getTransactionManager());
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        other.executeWithoutResult(status -> {
+            Member member = memberJpaRepository.find(id);
+            member.setAge(member.getAge() + 1);
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"datajpa.warmup.enabled=true", "datajpa.metrics.query-plan.enabled=true"})
+@Transactional
+class RepositoryQueryWarmerTest {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    @DisplayName("시작할 때 리포지토리 쿼리를 미리 실행하고 소요 시간을 남긴다")
+    public void warmup(){
+        assertThat(meterRegistry.get("datajpa.query.warmup").tag("repository", "MemberRepository").timer().count())
+                .isEqualTo(1);
+        //warm-up 호출은 리포지토리 metric 에 남지 않는다. (이 컨텍스트의 다른 테스트는 findMemberDtoList 를 호출하지 않는다)
+        assertThat(meterRegistry.find("datajpa.repository.invocation")
+                .tags("repository", "MemberRepository", "method", "findMemberDtoList").timers()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("warm-up 된 IN 절 쿼리는 plan 캐시에서 재사용된다")
+    public void planCacheHit(){
+        //given
+        double hits = meterRegistry.get("datajpa.hibernate.query.plan").tag("result", "hit").functionCounter().count();
+
+        //when 조각 크기 이하의 IN 절
+        memberRepository.findBynNames(List.of("warmup1", "warmup2", "warmup3"));
+
+        //then
+        assertThat(meterRegistry.get("datajpa.hibernate.query.plan").tag("result", "hit").functionCounter().count())
+                .isGreaterThan(hits);
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    @DisplayName("한 노드의 id 는 항상 증가하고, 노드가 다르면 겹치지 않는다")
+    public void next(){
+        //given
+        TimeOrderedIdGenerator node1 = new TimeOrderedIdGenerator(1);
+        TimeOrderedIdGenerator node2 = new TimeOrderedIdGenerator(2);
+        Set<Long> ids = new HashSet<>();
+
+        //when then 한 밀리초의 순번(4096)보다 많이 발급한다.
+        long last = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long id = node1.next();
+            assertThat(id).isGreaterThan(last);
+            last = id;
+            assertThat(ids.add(id)).isTrue();
+            assertThat(ids.add(node2.next())).isTrue();
+        }
+        assertThat((last >>> TimeOrderedIdGenerator.SEQUENCE_BITS) & TimeOrderedIdGenerator.MAX_NODE).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidNode(){
+        assertThatThrownBy(() -> new TimeOrderedIdGenerator(1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}